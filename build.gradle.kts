@@ -1,14 +1,47 @@
 plugins {
     java
+    id("me.champeau.gradle.jmh") version "0.5.3"
 }
 
 group = "me.devgabi"
 version = "1.0-SNAPSHOT"
 
+// jdk.jfr needs java 11, the method handle combinators and Math.multiplyHigh java 9
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
 repositories {
     mavenCentral()
 }
 
 dependencies {
     implementation("org.jetbrains:annotations:15.0")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.7.0")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    jmhVersion = "1.26"
+    // the allocation rate and normalized bytes per operation of each benchmark
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    resultsFile = file("$buildDir/reports/jmh/results-$version.json")
+    humanOutputFile = file("$buildDir/reports/jmh/human-$version.txt")
+    // ./gradlew jmh -Pjmh.include=RenderBenchmark to run some of the benchmarks
+    include = listOf(project.findProperty("jmh.include")?.toString() ?: ".*")
+}
+
+tasks.register<JavaExec>("scaling") {
+    group = "benchmark"
+    description = "Measures how the rendering scales with the template size, depth, variables and bundle size."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("me.devgabi.configstrings.benchmark.ScalingHarness")
+    maxHeapSize = "2g"
+    args(file("$buildDir/reports/scaling/results-$version.csv"))
 }
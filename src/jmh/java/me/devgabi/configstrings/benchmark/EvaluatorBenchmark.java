@@ -0,0 +1,53 @@
+package me.devgabi.configstrings.benchmark;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.evaluator.Evaluator;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EvaluatorBenchmark {
+    @Param({
+            TemplateCorpus.LITERAL,
+            TemplateCorpus.INTERPOLATION,
+            TemplateCorpus.ARITHMETIC,
+            TemplateCorpus.CALL,
+            TemplateCorpus.MEMBER,
+            TemplateCorpus.NESTED
+    })
+    public String template;
+
+    private Expr expr;
+    private Expr optimized;
+    private Evaluator evaluator;
+
+    @Setup
+    public void setup() {
+        TemplateCorpus.check(template);
+
+        final Map<String, ConfigValue> environment = TemplateCorpus.environment();
+
+        expr = ConfigStrings.parse(TemplateCorpus.code(template));
+        optimized = ConfigStrings.prepare(expr);
+        evaluator = new Evaluator(environment);
+    }
+
+    @Benchmark
+    public ConfigValue visit() {
+        return evaluator.visit(expr);
+    }
+
+    @Benchmark
+    public ConfigValue visitOptimized() {
+        return evaluator.visit(optimized);
+    }
+}
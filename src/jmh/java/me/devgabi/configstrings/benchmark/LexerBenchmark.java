@@ -0,0 +1,48 @@
+package me.devgabi.configstrings.benchmark;
+
+import me.devgabi.configstrings.grammar.Token;
+import me.devgabi.configstrings.grammar.lexer.Lexer;
+import me.devgabi.configstrings.grammar.lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LexerBenchmark {
+    @Param({
+            TemplateCorpus.LITERAL,
+            TemplateCorpus.INTERPOLATION,
+            TemplateCorpus.ARITHMETIC,
+            TemplateCorpus.CALL,
+            TemplateCorpus.MEMBER,
+            TemplateCorpus.NESTED
+    })
+    public String template;
+
+    private String code;
+    private TokenBuffer buffer;
+
+    @Setup
+    public void setup() {
+        TemplateCorpus.check(template);
+
+        code = TemplateCorpus.code(template);
+        buffer = new TokenBuffer();
+    }
+
+    @Benchmark
+    public List<Token> lex() {
+        return new Lexer(code, true).lex();
+    }
+
+    @Benchmark
+    public TokenBuffer lexInto() {
+        return new Lexer(code, true).lexInto(buffer);
+    }
+}
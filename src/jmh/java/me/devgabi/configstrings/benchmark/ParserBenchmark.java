@@ -0,0 +1,55 @@
+package me.devgabi.configstrings.benchmark;
+
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.grammar.Token;
+import me.devgabi.configstrings.grammar.lexer.Lexer;
+import me.devgabi.configstrings.grammar.parser.Parser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ParserBenchmark {
+    @Param({
+            TemplateCorpus.LITERAL,
+            TemplateCorpus.INTERPOLATION,
+            TemplateCorpus.ARITHMETIC,
+            TemplateCorpus.CALL,
+            TemplateCorpus.MEMBER,
+            TemplateCorpus.NESTED
+    })
+    public String template;
+
+    private String code;
+    private List<Token> tokens;
+
+    @Setup
+    public void setup() {
+        TemplateCorpus.check(template);
+
+        code = TemplateCorpus.code(template);
+        tokens = new Lexer(code, true).lex();
+    }
+
+    /**
+     * Parses the tokens lexed in the setup, measuring only the parser
+     */
+    @Benchmark
+    public Expr parse() {
+        return new Parser(tokens).parse();
+    }
+
+    /**
+     * Parses the code pulling the tokens from the lexer, without the token list
+     */
+    @Benchmark
+    public Expr lexAndParse() {
+        return new Parser(new Lexer(code, true)).parse();
+    }
+}
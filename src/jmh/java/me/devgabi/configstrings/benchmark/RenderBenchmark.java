@@ -0,0 +1,66 @@
+package me.devgabi.configstrings.benchmark;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.grammar.lexer.Lexer;
+import me.devgabi.configstrings.grammar.parser.Parser;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the templates end to end, from the code to the output string
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RenderBenchmark {
+    @Param({
+            TemplateCorpus.LITERAL,
+            TemplateCorpus.INTERPOLATION,
+            TemplateCorpus.ARITHMETIC,
+            TemplateCorpus.CALL,
+            TemplateCorpus.MEMBER,
+            TemplateCorpus.NESTED
+    })
+    public String template;
+
+    private String code;
+    private Map<String, ConfigValue> environment;
+    private CompiledTemplate compiled;
+
+    @Setup
+    public void setup() {
+        TemplateCorpus.check(template);
+
+        code = TemplateCorpus.code(template);
+        environment = TemplateCorpus.environment();
+        compiled = ConfigStrings.compile(code);
+    }
+
+    /**
+     * Lexes, parses and evaluates the code every time, without any cache
+     */
+    @Benchmark
+    public String uncached() {
+        return ConfigStrings.evaluate(new Parser(new Lexer(code, true)).parse(), environment);
+    }
+
+    /**
+     * Evaluates the code with the parse cache, like the applications render their configs
+     */
+    @Benchmark
+    public String evaluate() {
+        return ConfigStrings.evaluate(ConfigStrings.parse(code), environment);
+    }
+
+    @Benchmark
+    public String compiled() {
+        return compiled.evaluate(environment);
+    }
+}
@@ -0,0 +1,293 @@
+package me.devgabi.configstrings.benchmark;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.compiler.TemplateBundle;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.grammar.lexer.Lexer;
+import me.devgabi.configstrings.grammar.parser.Parser;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Measures how the throughput, the latency percentiles and the heap usage scale
+ * with the template size, the nesting depth, the variable count and the bundle
+ * size, over corpora of the {@link TemplateGenerator}.
+ * <p>
+ * The time per operation of each point is compared with the previous point of the
+ * same axis: when it grows faster than the input, like a quadratic copy of the
+ * source, both points are measured again, and if the growth is still superlinear
+ * with their fastest runs, the point is reported and the harness exits with 1.
+ * <p>
+ * A point whose workload fails, or whose texts do not render the bound values,
+ * is reported with its error and also makes the harness exit with 1.
+ * <p>
+ * Run with {@code ./gradlew scaling}, the results are written as CSV to the first
+ * argument, or printed when there is none.
+ */
+public final class ScalingHarness {
+    private static final long SEED = 0x5eed;
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long MEASUREMENT_NANOS = 1_000_000_000L;
+    private static final int MAXIMUM_SAMPLES = 100_000;
+
+    // the largest growth exponent of the time per operation that is still linear, with noise
+    private static final double LINEAR_EXPONENT = 1.4;
+
+    // the measurements of a superlinear point and its previous point, before reporting it
+    private static final int ATTEMPTS = 3;
+
+    private static final String HEADER =
+            "axis,input,ops_per_second,p50_ns,p90_ns,p99_ns,max_ns,allocated_bytes_per_op,retained_bytes,exponent,error";
+
+    private final @NotNull List<String> rows = new ArrayList<>();
+    private final @NotNull List<String> superlinear = new ArrayList<>();
+    private final @NotNull List<String> failed = new ArrayList<>();
+
+    private ScalingHarness() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final ScalingHarness harness = new ScalingHarness();
+
+        harness.axis("size", new int[]{1_024, 4_096, 16_384, 102_400}, size -> {
+            final TemplateGenerator generator = new TemplateGenerator(SEED, 16);
+            final String code = generator.text(size, 64);
+            final Map<String, ConfigValue> environment = generator.environment();
+            check(generator.expected(code), ConfigStrings.evaluate(ConfigStrings.parse(code), environment));
+
+            return () -> ConfigStrings.evaluate(new Parser(new Lexer(code, true)).parse(), environment);
+        });
+
+        harness.axis("depth", new int[]{5, 10, 20, 50}, depth -> {
+            final TemplateGenerator generator = new TemplateGenerator(SEED, 16);
+            final String code = generator.expression(depth);
+            final Map<String, ConfigValue> environment = generator.environment();
+
+            return () -> ConfigStrings.evaluate(new Parser(new Lexer(code, true)).parse(), environment);
+        });
+
+        // the chain is as deep as the variable count, up to the maximum depth of the parser
+        harness.axis("variables", new int[]{16, 64, Parser.MAXIMUM_DEPTH}, variables -> {
+            final TemplateGenerator generator = new TemplateGenerator(SEED, variables);
+            final CompiledTemplate template = ConfigStrings.compile(generator.chain(variables));
+            final Map<String, ConfigValue> environment = generator.environment();
+
+            return () -> template.evaluate(environment);
+        });
+
+        harness.axis("bundle", new int[]{1_000, 10_000, 100_000}, count -> {
+            final TemplateGenerator generator = new TemplateGenerator(SEED, 64);
+            final Map<String, String> templates = generator.bundle(count, 64, 4);
+            final Map<String, ConfigValue> environment = generator.environment();
+            final TemplateBundle bundle = ConfigStrings.bundle(templates);
+            bundle.evaluate(environment);
+            for (final Map.Entry<String, String> template : templates.entrySet()) {
+                if (template.getValue().startsWith("'")) {
+                    check(generator.expected(template.getValue()), bundle.get(template.getKey()));
+                }
+            }
+
+            return () -> bundle.evaluate(environment);
+        });
+
+        final String output = String.join(System.lineSeparator(), harness.rows);
+        if (args.length > 0) {
+            final Path path = Paths.get(args[0]);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+
+            Files.write(path, (HEADER + System.lineSeparator() + output + System.lineSeparator()).getBytes());
+            System.out.println("Wrote " + harness.rows.size() + " results to " + path);
+        } else {
+            System.out.println(HEADER);
+            System.out.println(output);
+        }
+
+        if (!harness.failed.isEmpty()) {
+            System.err.println("Failed points " + harness.failed);
+        }
+
+        if (!harness.superlinear.isEmpty()) {
+            System.err.println("Superlinear scaling in " + harness.superlinear);
+        }
+
+        if (!harness.failed.isEmpty() || !harness.superlinear.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private void axis(final String axis, final int[] inputs, final IntFunction<Runnable> workload) {
+        Runnable previousOperation = null;
+        double previousNanos = 0;
+        int previousInput = 0;
+
+        for (final int input : inputs) {
+            final Runnable operation;
+            final long retained;
+            Point point;
+            try {
+                final long before = retainedBytes();
+                operation = workload.apply(input);
+                retained = Math.max(0, retainedBytes() - before);
+
+                point = measure(operation);
+            } catch (final RuntimeException | StackOverflowError e) {
+                final String error = describe(e);
+                failed.add(axis + "=" + input + " (" + error + ")");
+                report(String.format("%s,%d,,,,,,,,,%s", axis, input, error));
+
+                // the next point has nothing to be compared with
+                previousOperation = null;
+                previousInput = 0;
+                continue;
+            }
+
+            double exponent = exponent(point.meanNanos, previousNanos, input, previousInput);
+            for (int attempt = 1; exponent > LINEAR_EXPONENT && attempt < ATTEMPTS; attempt++) {
+                previousNanos = Math.min(previousNanos, measure(previousOperation).meanNanos);
+
+                final Point again = measure(operation);
+                if (again.meanNanos < point.meanNanos) {
+                    point = again;
+                }
+
+                exponent = exponent(point.meanNanos, previousNanos, input, previousInput);
+            }
+
+            if (exponent > LINEAR_EXPONENT) {
+                superlinear.add(axis + "=" + input);
+            }
+
+            report(String.format(
+                    "%s,%d,%.1f,%d,%d,%d,%d,%d,%d,%.2f,",
+                    axis, input, point.opsPerSecond,
+                    point.percentile(0.50), point.percentile(0.90), point.percentile(0.99), point.percentile(1),
+                    point.allocatedBytesPerOp, retained, exponent
+            ));
+
+            previousOperation = operation;
+            previousNanos = point.meanNanos;
+            previousInput = input;
+        }
+    }
+
+    /**
+     * Checks the output of a generated text, so a text that renders wrong fails its point instead of being measured
+     */
+    private static void check(final @NotNull String expected, final String output) {
+        if (!expected.equals(output)) {
+            throw new IllegalStateException("Rendered " + output + " but expected " + expected);
+        }
+    }
+
+    private void report(final @NotNull String row) {
+        rows.add(row);
+        System.err.println(row);
+    }
+
+    /**
+     * Returns the growth exponent of the time per operation between two inputs, or NaN without a previous input
+     */
+    private static double exponent(final double nanos, final double previousNanos, final int input, final int previousInput) {
+        if (previousInput == 0) {
+            return Double.NaN;
+        }
+
+        return Math.log(nanos / previousNanos) / Math.log((double) input / previousInput);
+    }
+
+    /**
+     * Describes the error by its type and the first frame outside of the expression tree, where the pass failed
+     */
+    private static @NotNull String describe(final @NotNull Throwable error) {
+        for (final StackTraceElement frame : error.getStackTrace()) {
+            if (!frame.getClassName().startsWith(Expr.class.getName())) {
+                return error.getClass().getSimpleName() + " in " + frame.getClassName() + "." + frame.getMethodName();
+            }
+        }
+
+        return error.getClass().getSimpleName();
+    }
+
+    private static @NotNull Point measure(final Runnable operation) {
+        final long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            operation.run();
+        }
+
+        final long[] samples = new long[MAXIMUM_SAMPLES];
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        int count = 0;
+
+        long now = start;
+        while (count < MAXIMUM_SAMPLES && now - start < MEASUREMENT_NANOS) {
+            operation.run();
+
+            final long end = System.nanoTime();
+            samples[count++] = end - now;
+            now = end;
+        }
+
+        final long allocated = allocatedBytes() - allocatedBefore;
+
+        return new Point(Arrays.copyOf(samples, count), now - start, allocated / count);
+    }
+
+    /**
+     * Returns the bytes allocated by this thread, or 0 when the JVM does not count them
+     */
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return 0;
+    }
+
+    private static long retainedBytes() {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static final class Point {
+        private final long[] sortedNanos;
+        private final double meanNanos;
+        private final double opsPerSecond;
+        private final long allocatedBytesPerOp;
+
+        private Point(long[] nanos, long totalNanos, long allocatedBytesPerOp) {
+            Arrays.sort(nanos);
+
+            this.sortedNanos = nanos;
+            this.meanNanos = (double) totalNanos / nanos.length;
+            this.opsPerSecond = nanos.length * 1e9 / totalNanos;
+            this.allocatedBytesPerOp = allocatedBytesPerOp;
+        }
+
+        private long percentile(final double percentile) {
+            final int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+
+            return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))];
+        }
+    }
+}
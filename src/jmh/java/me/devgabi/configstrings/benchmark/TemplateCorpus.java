@@ -0,0 +1,151 @@
+package me.devgabi.configstrings.benchmark;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The templates measured by the benchmarks, by name, so every benchmark takes
+ * them as the same {@code @Param} values and the results line up between stages
+ */
+final class TemplateCorpus {
+    static final String LITERAL = "literal";
+    static final String INTERPOLATION = "interpolation";
+    static final String ARITHMETIC = "arithmetic";
+    static final String CALL = "call";
+    static final String MEMBER = "member";
+    static final String NESTED = "nested";
+
+    private TemplateCorpus() {
+    }
+
+    /**
+     * Returns the code of a template of the corpus
+     *
+     * @param name the template name
+     * @return the template code
+     */
+    static @NotNull String code(final @NotNull String name) {
+        switch (name) {
+            case LITERAL:
+                return "\"The quick brown fox jumps over the lazy dog\"";
+
+            case INTERPOLATION:
+                return "'a {{name}} b {{count}} c {{name}} d {{count}} e {{name}} f {{count}} g'";
+
+            case ARITHMETIC:
+                return "count * 2 + 3 * count - 1 + count * count - 60 * 60 * 24 + count * 3";
+
+            case CALL:
+                return "upper(lower(upper(name)))";
+
+            case MEMBER:
+                return "user->level * 2 + user->score";
+
+            case NESTED:
+                return "'a {{upper('b {{name}} c {{lower('D {{count}} E')}} f')}} g'";
+
+            default:
+                throw new IllegalArgumentException("Unknown template " + name);
+        }
+    }
+
+    /**
+     * Returns the output of a template of the corpus in the {@link #environment()}
+     *
+     * @param name the template name
+     * @return the expected output
+     */
+    static @NotNull String expected(final @NotNull String name) {
+        switch (name) {
+            case LITERAL:
+                return "The quick brown fox jumps over the lazy dog";
+
+            case INTERPOLATION:
+                return "a Gabi b 42 c Gabi d 42 e Gabi f 42 g";
+
+            case ARITHMETIC:
+                return "-84301";
+
+            case CALL:
+                return "GABI";
+
+            case MEMBER:
+                return "1264";
+
+            case NESTED:
+                return "a B GABI C D 42 E F g";
+
+            default:
+                throw new IllegalArgumentException("Unknown template " + name);
+        }
+    }
+
+    /**
+     * Checks that the interpreter and the compiled template render the expected
+     * output, so a template the lexer or parser gets wrong fails the run instead
+     * of being measured
+     *
+     * @param name the template name
+     * @throws IllegalStateException if a output differs from the expected one
+     */
+    static void check(final @NotNull String name) {
+        final Map<String, ConfigValue> environment = environment();
+        final Expr expr = ConfigStrings.parse(code(name));
+
+        check(name, "interpreted", ConfigStrings.evaluate(expr, environment));
+        check(name, "optimized", ConfigStrings.evaluate(ConfigStrings.prepare(expr), environment));
+        check(name, "compiled", ConfigStrings.compile(expr).evaluate(environment));
+    }
+
+    private static void check(final @NotNull String name, final @NotNull String tier, final @NotNull String output) {
+        final String expected = expected(name);
+        if (!expected.equals(output)) {
+            throw new IllegalStateException(
+                    "The " + tier + " template " + name + " rendered " + output + " but expected " + expected
+            );
+        }
+    }
+
+    /**
+     * Returns the environment of the corpus templates, with the builtin functions
+     *
+     * @return a map environment
+     */
+    static @NotNull Map<String, ConfigValue> environment() {
+        final Map<String, ConfigValue> environment = new HashMap<>(ConfigStrings.builtin());
+        environment.put("name", ConfigValue.of("Gabi"));
+        environment.put("count", ConfigValue.of(42));
+        environment.put("user", ConfigValue.of(new User("Gabi", 7, 1250)));
+
+        return environment;
+    }
+
+    public static final class User {
+        private final String name;
+        private final int level;
+        private final long score;
+
+        public User(String name, int level, long score) {
+            this.name = name;
+            this.level = level;
+            this.score = score;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public long getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package me.devgabi.configstrings.benchmark;
+
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates random templates of a controlled shape, following the productions of
+ * the {@link me.devgabi.configstrings.grammar.parser.Parser}: strings with
+ * interpolations, arithmetic terms and factors, groups, calls and member access.
+ * The generation is seeded, so the same seed generates the same corpus, and the
+ * generated templates only reference the numeric variables {@code v0} to
+ * {@code vN} and the builtins, so they evaluate without errors, and the output
+ * of a text can be checked against {@link #expected(String)}.
+ */
+public final class TemplateGenerator {
+    private static final String[] OPERATORS = {" + ", " - ", " * "};
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz     ";
+    private static final Pattern INTERPOLATION = Pattern.compile("\\{\\{v(\\d+)}}");
+
+    private final @NotNull Random random;
+    private final int variables;
+
+    /**
+     * Creates a generator
+     *
+     * @param seed      the seed of the random generator
+     * @param variables how many distinct variables the templates reference
+     */
+    public TemplateGenerator(final long seed, final int variables) {
+        this.random = new Random(seed);
+        this.variables = Math.max(variables, 1);
+    }
+
+    /**
+     * Generates a string template of about the size, with a interpolated variable
+     * every interval characters
+     *
+     * @param size     the size in characters
+     * @param interval the characters between interpolations
+     * @return the template code
+     */
+    public @NotNull String text(final int size, final int interval) {
+        final StringBuilder builder = new StringBuilder(size + 16).append('\'');
+
+        while (builder.length() < size) {
+            final int segment = Math.min(interval, size - builder.length());
+            for (int i = 0; i < segment; i++) {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+
+            if (builder.length() < size) {
+                builder.append("{{").append(variable()).append("}}");
+            }
+        }
+
+        return builder.append('\'').toString();
+    }
+
+    /**
+     * Returns the output of a text template in the {@link #environment()}, the text
+     * with each interpolated variable replaced by its value
+     *
+     * @param text the code of a template from {@link #text(int, int)}
+     * @return the expected output
+     */
+    public @NotNull String expected(final @NotNull String text) {
+        final Matcher matcher = INTERPOLATION.matcher(text.substring(1, text.length() - 1));
+        final StringBuffer output = new StringBuffer(text.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(output, Integer.toString(value(Integer.parseInt(matcher.group(1)))));
+        }
+
+        return matcher.appendTail(output).toString();
+    }
+
+    /**
+     * Generates a arithmetic expression nested as deep as the depth, each level is
+     * a group, a builtin call or a member access over the deeper level
+     *
+     * @param depth the nesting depth
+     * @return the template code
+     */
+    public @NotNull String expression(final int depth) {
+        return expression(depth, new StringBuilder()).toString();
+    }
+
+    /**
+     * Generates a flat arithmetic sum of terms, like {@code v0 + v1 + v2}, that
+     * references every variable about once when the length is the variable count.
+     * The sum is parsed into a left-deep tree, as deep as the length, so the parser
+     * rejects chains longer than {@link me.devgabi.configstrings.grammar.parser.Parser#MAXIMUM_DEPTH}
+     *
+     * @param length the number of terms
+     * @return the template code
+     */
+    public @NotNull String chain(final int length) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < Math.max(length, 1); i++) {
+            if (i > 0) {
+                builder.append(" + ");
+            }
+
+            builder.append('v').append(i % variables);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Generates a bundle of templates, mixing texts and expressions
+     *
+     * @param count how many templates
+     * @param size  the size of each text template
+     * @param depth the depth of each expression template
+     * @return the template codes by key
+     */
+    public @NotNull Map<String, String> bundle(final int count, final int size, final int depth) {
+        final Map<String, String> templates = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            templates.put("key" + i, random.nextBoolean() ? text(size, 16) : expression(depth));
+        }
+
+        return templates;
+    }
+
+    /**
+     * Returns a environment binding every variable the templates reference
+     *
+     * @return a map environment
+     */
+    public @NotNull Map<String, ConfigValue> environment() {
+        final Map<String, ConfigValue> environment = new HashMap<>(TemplateCorpus.environment());
+        for (int i = 0; i < variables; i++) {
+            environment.put("v" + i, ConfigValue.of(value(i)));
+        }
+
+        return environment;
+    }
+
+    private StringBuilder expression(final int depth, final StringBuilder builder) {
+        if (depth <= 0) {
+            return builder.append(leaf());
+        }
+
+        switch (random.nextInt(4)) {
+            case 0:
+                // the cube root keeps the values small in deep expressions
+                builder.append("cbrt(");
+                expression(depth - 1, builder);
+                return builder.append(')');
+
+            case 1:
+                builder.append(leaf()).append(OPERATORS[random.nextInt(OPERATORS.length)]).append('(');
+                expression(depth - 1, builder);
+                return builder.append(')');
+
+            case 2:
+                builder.append("user->level").append(OPERATORS[random.nextInt(2)]).append('(');
+                expression(depth - 1, builder);
+                return builder.append(')');
+
+            default:
+                builder.append('(');
+                expression(depth - 1, builder);
+                return builder.append(')').append(OPERATORS[random.nextInt(2)]).append(leaf());
+        }
+    }
+
+    private static int value(final int variable) {
+        return variable % 7 + 1;
+    }
+
+    private String leaf() {
+        return random.nextBoolean() ? variable() : Integer.toString(random.nextInt(100));
+    }
+
+    private String variable() {
+        return "v" + random.nextInt(variables);
+    }
+}
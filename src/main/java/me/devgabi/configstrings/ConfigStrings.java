@@ -1,9 +1,18 @@
 package me.devgabi.configstrings;
 
+import me.devgabi.configstrings.async.AsyncBatch;
+import me.devgabi.configstrings.cache.BoundedCache;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.compiler.LinkException;
+import me.devgabi.configstrings.compiler.TemplateBundle;
+import me.devgabi.configstrings.compiler.TemplateCompiler;
 import me.devgabi.configstrings.evaluator.Evaluator;
 import me.devgabi.configstrings.grammar.Expr;
 import me.devgabi.configstrings.grammar.parser.Parser;
 import me.devgabi.configstrings.grammar.lexer.Lexer;
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.metrics.Instrumentation;
+import me.devgabi.configstrings.optimizer.Optimizer;
 import me.devgabi.configstrings.value.*;
 import me.devgabi.configstrings.value.ConfigFunction;
 import me.devgabi.configstrings.value.ConfigNumeric;
@@ -12,8 +21,10 @@ import me.devgabi.configstrings.value.ConfigValue;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Code strings "string" language
@@ -41,17 +52,138 @@ public final class ConfigStrings {
     }
 
     /**
-     * Parses the code and return the expression
+     * Parses the code and return the expression, the expression is cached
+     * by code and flexible option, so it is shared and must not be modified
      *
      * @param code     the target code
      * @param flexible if the lexer is flexible
      * @return the parsed expression
      */
     public static @NotNull Expr parse(final String code, final boolean flexible) {
-        final Lexer lexer = new Lexer(code, flexible);
-        final Parser parser = new Parser(lexer.lex());
+        return PARSE_CACHE.get(new TemplateKey(code, flexible), key -> {
+            final EvaluationListener listener = Instrumentation.listener();
+            if (listener == null) {
+                return new Parser(new Lexer(key.code, key.flexible)).parse();
+            }
 
-        return parser.parse();
+            final long start = System.nanoTime();
+            final Expr expr;
+            try {
+                expr = new Parser(new Lexer(key.code, key.flexible)).parse();
+            } catch (final RuntimeException e) {
+                listener.parsed(key.code, null, System.nanoTime() - start, e);
+                throw e;
+            }
+
+            listener.parsed(key.code, expr, System.nanoTime() - start, null);
+
+            return expr;
+        });
+    }
+
+    /**
+     * Returns the cache used by {@link #parse(String, boolean)}, that
+     * exposes the hit, miss and eviction counters
+     *
+     * @return the parse cache
+     */
+    public static @NotNull BoundedCache<?, Expr> parseCache() {
+        return PARSE_CACHE;
+    }
+
+    /**
+     * Folds the constant subexpressions of the expression
+     *
+     * @param expr a expression
+     * @return the optimized expression
+     */
+    public static @NotNull Expr optimize(final Expr expr) {
+        return new Optimizer(expr).optimize();
+    }
+
+    /**
+     * Optimizes the expression and wraps its constant literals once, so evaluating
+     * it does not allocate for the literals, booleans, small numerics and null
+     *
+     * @param expr a expression
+     * @return the prepared expression
+     */
+    public static @NotNull Expr prepare(final Expr expr) {
+        return new Optimizer(expr, true).optimize();
+    }
+
+    /**
+     * Compiles code with lexer flexible option into a reusable template
+     *
+     * @param code the target code
+     * @return the compiled template
+     */
+    public static @NotNull CompiledTemplate compile(final String code) {
+        return compile(code, true);
+    }
+
+    /**
+     * Compiles the code into a reusable template, the template is cached
+     * by code and flexible option
+     *
+     * @param code     the target code
+     * @param flexible if the lexer is flexible
+     * @return the compiled template
+     */
+    public static @NotNull CompiledTemplate compile(final String code, final boolean flexible) {
+        return COMPILE_CACHE.get(new TemplateKey(code, flexible), key -> {
+            return compile(parse(key.code, key.flexible));
+        });
+    }
+
+    /**
+     * Compiles the code into a reusable template, linking the calls of the
+     * {@link #builtin()} functions. The linked calls no longer look up the
+     * function in the environment, and their arity is checked when compiling
+     *
+     * @param code the target code
+     * @return the compiled template
+     * @throws LinkException if a builtin is called with too few arguments
+     */
+    public static @NotNull CompiledTemplate compileLinked(final String code) {
+        return COMPILE_CACHE.get(new TemplateKey(code, true, true), key -> {
+            return LINKING_COMPILER.compile(parse(key.code, key.flexible));
+        });
+    }
+
+    /**
+     * Compiles the templates of a config together into a bundle, that evaluates
+     * again only the keys affected by changed variables
+     *
+     * @param templates the template codes by key
+     * @return the template bundle
+     */
+    public static @NotNull TemplateBundle bundle(final Map<String, String> templates) {
+        final Map<String, CompiledTemplate> compiled = new LinkedHashMap<>();
+        for (final Map.Entry<String, String> entry : templates.entrySet()) {
+            compiled.put(entry.getKey(), compile(entry.getValue()));
+        }
+
+        return new TemplateBundle(compiled);
+    }
+
+    /**
+     * Compiles a expression into a reusable template
+     *
+     * @param expr a expression
+     * @return the compiled template
+     */
+    public static @NotNull CompiledTemplate compile(final Expr expr) {
+        return COMPILER.compile(expr);
+    }
+
+    /**
+     * Returns the cache used by {@link #compile(String, boolean)}
+     *
+     * @return the compile cache
+     */
+    public static @NotNull BoundedCache<?, CompiledTemplate> compileCache() {
+        return COMPILE_CACHE;
     }
 
     /**
@@ -62,36 +194,108 @@ public final class ConfigStrings {
      * @return a evaluated string
      */
     public static @NotNull String evaluate(final Expr expr, final Map<String, ConfigValue> environment) {
-        return new Evaluator(environment).visit(expr).toString();
+        final StringBuilder builder = new StringBuilder(
+                expr instanceof Expr.Text ? ((Expr.Text) expr).estimateLength() : 16
+        );
+        evaluateTo(expr, environment, builder);
+
+        return builder.toString();
+    }
+
+    /**
+     * Evaluates a expression straight into the output, like a {@link StringBuilder}
+     * or a {@link java.io.Writer}, without building the intermediate strings
+     *
+     * @param expr        a expression
+     * @param environment a map environment
+     * @param output      the output
+     */
+    public static void evaluateTo(
+            final Expr expr,
+            final Map<String, ConfigValue> environment,
+            final Appendable output
+    ) {
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            new Evaluator(environment).evaluateTo(expr, output);
+            return;
+        }
+
+        final int initialLength = output instanceof CharSequence ? ((CharSequence) output).length() : -1;
+        final long start = System.nanoTime();
+        try {
+            new Evaluator(environment).evaluateTo(expr, output);
+        } catch (final RuntimeException e) {
+            if (!AsyncBatch.isSuspension(e)) {
+                listener.evaluated(expr, -1, System.nanoTime() - start, e);
+            }
+            throw e;
+        }
+
+        final long nanos = System.nanoTime() - start;
+        final int outputLength = initialLength < 0 ? -1 : ((CharSequence) output).length() - initialLength;
+
+        listener.evaluated(expr, outputLength, nanos, null);
     }
 
+    private static final int CACHE_SIZE = 4096;
+
+    private static final @NotNull BoundedCache<TemplateKey, Expr> PARSE_CACHE = new BoundedCache<>(CACHE_SIZE, "parse");
+
+    private static final @NotNull BoundedCache<TemplateKey, CompiledTemplate> COMPILE_CACHE =
+            new BoundedCache<>(CACHE_SIZE, "compile");
+
+    private static final @NotNull TemplateCompiler COMPILER = new TemplateCompiler();
+
     private static final @NotNull Map<String, ConfigValue> BUILTIN = new HashMap<>();
 
     static {
-        BUILTIN.put("lower", ConfigFunction.of(1, arguments -> {
-            return ConfigString.of(
-                    arguments.get(0)
-                            .cast(ConfigString.class)
-                            .unwrap()
-                            .toLowerCase(Locale.ROOT)
-            );
-        }));
-
-        BUILTIN.put("upper", ConfigFunction.of(1, arguments -> {
-            return ConfigString.of(
-                    arguments.get(0)
-                            .cast(ConfigString.class)
-                            .unwrap()
-                            .toUpperCase(Locale.ROOT)
-            );
-        }));
-
-        BUILTIN.put("sqrt", ConfigFunction.of(1, arguments -> {
-            return ConfigNumeric.of(Math.sqrt(arguments.get(0).cast(ConfigNumeric.class).unwrap()));
-        }));
-
-        BUILTIN.put("cbrt", ConfigFunction.of(1, arguments -> {
-            return ConfigNumeric.of(Math.cbrt(arguments.get(0).cast(ConfigNumeric.class).unwrap()));
-        }));
+        BUILTIN.put("lower", ConfigFunction.of(value -> {
+            return ConfigString.of(value.cast(ConfigString.class).unwrap().toLowerCase(Locale.ROOT));
+        }).pure().named("lower"));
+
+        BUILTIN.put("upper", ConfigFunction.of(value -> {
+            return ConfigString.of(value.cast(ConfigString.class).unwrap().toUpperCase(Locale.ROOT));
+        }).pure().named("upper"));
+
+        BUILTIN.put("sqrt", ConfigFunction.of(value -> {
+            return ConfigNumeric.of(Math.sqrt(value.cast(ConfigNumeric.class).doubleValue()));
+        }).pure().named("sqrt"));
+
+        BUILTIN.put("cbrt", ConfigFunction.of(value -> {
+            return ConfigNumeric.of(Math.cbrt(value.cast(ConfigNumeric.class).doubleValue()));
+        }).pure().named("cbrt"));
+    }
+
+    private static final @NotNull TemplateCompiler LINKING_COMPILER =
+            new TemplateCompiler(TemplateCompiler.DEFAULT_PROMOTION_THRESHOLD, BUILTIN);
+
+    private static final class TemplateKey {
+        private final @NotNull String code;
+        private final boolean flexible;
+        private final boolean linked;
+
+        private TemplateKey(@NotNull String code, boolean flexible) {
+            this(code, flexible, false);
+        }
+
+        private TemplateKey(@NotNull String code, boolean flexible, boolean linked) {
+            this.code = code;
+            this.flexible = flexible;
+            this.linked = linked;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TemplateKey that = (TemplateKey) o;
+            return flexible == that.flexible && linked == that.linked && code.equals(that.code);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(code, flexible, linked);
+        }
     }
 }
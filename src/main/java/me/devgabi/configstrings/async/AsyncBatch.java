@@ -0,0 +1,223 @@
+package me.devgabi.configstrings.async;
+
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates many templates together, batching the calls of their
+ * {@link AsyncFunction}s.
+ * <p>
+ * The evaluation runs in rounds: a call whose result is not loaded yet suspends
+ * its template, and when every template ran, the suspended calls of each loader
+ * are loaded with one call to it. When the loads complete, the suspended
+ * templates are evaluated again, now with the loaded results, until all of them
+ * finish. So the evaluations must not have other side effects, as they can run
+ * more than once.
+ */
+public final class AsyncBatch {
+    private static final ThreadLocal<AsyncBatch> CURRENT = new ThreadLocal<>();
+
+    private final @NotNull Map<BatchLoader, LoaderState> loaders = new LinkedHashMap<>();
+
+    private AsyncBatch() {
+    }
+
+    /**
+     * Evaluates the template with every environment
+     *
+     * @param template     the template
+     * @param environments the map environments
+     * @return the future of the outputs, in the order of the environments
+     */
+    public static @NotNull CompletableFuture<List<String>> evaluate(
+            final @NotNull CompiledTemplate template,
+            final @NotNull List<? extends Map<String, ConfigValue>> environments
+    ) {
+        final List<Supplier<String>> tasks = new ArrayList<>(environments.size());
+        for (final Map<String, ConfigValue> environment : environments) {
+            tasks.add(() -> template.evaluate(environment));
+        }
+
+        return run(tasks);
+    }
+
+    /**
+     * Runs every task, like the evaluation of a template, batching the async calls
+     * between them. If a task fails the future completes with its exception
+     *
+     * @param tasks the tasks
+     * @param <T>   the result type
+     * @return the future of the results, in the order of the tasks
+     */
+    public static <T> @NotNull CompletableFuture<List<T>> run(final @NotNull List<? extends Supplier<T>> tasks) {
+        final CompletableFuture<List<T>> future = new CompletableFuture<>();
+        final Object[] results = new Object[tasks.size()];
+        final List<Integer> suspended = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            suspended.add(i);
+        }
+
+        new AsyncBatch().round(tasks, results, suspended, future);
+
+        return future;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void round(
+            final @NotNull List<? extends Supplier<T>> tasks,
+            final @NotNull Object[] results,
+            final @NotNull List<Integer> pending,
+            final @NotNull CompletableFuture<List<T>> future
+    ) {
+        final List<Integer> suspended = new ArrayList<>();
+
+        final AsyncBatch previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            for (final int index : pending) {
+                try {
+                    results[index] = tasks.get(index).get();
+                } catch (final RuntimeException e) {
+                    if (!isSuspension(e)) {
+                        future.completeExceptionally(e);
+                        return;
+                    }
+
+                    suspended.add(index);
+                }
+            }
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+
+        if (suspended.isEmpty()) {
+            final List<T> list = new ArrayList<>(results.length);
+            for (final Object result : results) {
+                list.add((T) result);
+            }
+
+            future.complete(list);
+            return;
+        }
+
+        dispatch().whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            } else {
+                round(tasks, results, suspended, future);
+            }
+        });
+    }
+
+    /**
+     * Loads the queued calls of every loader
+     *
+     * @return the future of all loads
+     */
+    private @NotNull CompletableFuture<Void> dispatch() {
+        final List<CompletableFuture<Void>> loads = new ArrayList<>();
+
+        for (final Map.Entry<BatchLoader, LoaderState> entry : loaders.entrySet()) {
+            final LoaderState state = entry.getValue();
+            if (state.queued.isEmpty()) continue;
+
+            final List<List<ConfigValue>> calls = new ArrayList<>(state.queued);
+            state.queued.clear();
+
+            loads.add(entry.getKey().load(calls).thenAccept(values -> state.resolve(calls, values)));
+        }
+
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Returns the result of a async call, suspending the evaluation when it is not loaded
+     *
+     * @param loader    the loader of the function
+     * @param arguments the call arguments
+     * @return the result
+     */
+    static @NotNull ConfigValue resolve(final @NotNull BatchLoader loader, final @NotNull List<ConfigValue> arguments) {
+        final List<ConfigValue> call = Collections.unmodifiableList(new ArrayList<>(arguments));
+
+        final AsyncBatch batch = CURRENT.get();
+        if (batch == null) {
+            final List<ConfigValue> values = loader.load(Collections.singletonList(call)).join();
+            checkResults(1, values);
+
+            return values.get(0);
+        }
+
+        final LoaderState state = batch.loaders.computeIfAbsent(loader, key -> new LoaderState());
+        final ConfigValue value = state.resolved.get(call);
+        if (value != null) {
+            return value;
+        }
+
+        state.queued.add(call);
+        throw Suspension.INSTANCE;
+    }
+
+    /**
+     * Returns if the exception unwinds a evaluation suspended by a async call, that
+     * runs again when the call is loaded, so it should not be reported as a failure
+     *
+     * @param throwable the exception
+     * @return if it is or is caused by a suspension
+     */
+    public static boolean isSuspension(final @Nullable Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current == Suspension.INSTANCE) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void checkResults(final int calls, final @NotNull List<ConfigValue> values) {
+        if (values.size() != calls) {
+            throw new IllegalStateException("Batch loader returned " + values.size() + " results for " + calls + " calls");
+        }
+    }
+
+    private static final class LoaderState {
+        private final @NotNull Map<List<ConfigValue>, ConfigValue> resolved = new HashMap<>();
+        private final @NotNull Set<List<ConfigValue>> queued = new LinkedHashSet<>();
+
+        private void resolve(final @NotNull List<List<ConfigValue>> calls, final @NotNull List<ConfigValue> values) {
+            checkResults(calls.size(), values);
+            for (int i = 0; i < calls.size(); i++) {
+                resolved.put(calls.get(i), ConfigValue.of(values.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Unwinds the evaluation of a template whose async call is not loaded yet
+     */
+    private static final class Suspension extends RuntimeException {
+        private static final Suspension INSTANCE = new Suspension();
+
+        private Suspension() {
+            super("Suspended by a async call", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package me.devgabi.configstrings.async;
+
+import me.devgabi.configstrings.value.ConfigFunction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates functions whose results are loaded asynchronously by a {@link BatchLoader}.
+ * <p>
+ * Evaluated in a {@link AsyncBatch}, the calls of every template in the batch are
+ * collected and loaded with one call to the loader. Evaluated anywhere else, each
+ * call loads its result alone and waits for it.
+ */
+public final class AsyncFunction {
+    private AsyncFunction() {
+    }
+
+    /**
+     * Creates a async function
+     *
+     * @param arity  the minimum number of arguments
+     * @param loader the batch loader
+     * @return the function value
+     */
+    public static @NotNull ConfigFunction of(final int arity, final @NotNull BatchLoader loader) {
+        return ConfigFunction.of(arity, arguments -> AsyncBatch.resolve(loader, arguments));
+    }
+}
@@ -0,0 +1,22 @@
+package me.devgabi.configstrings.async;
+
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads the results of many calls of a async function at once, like
+ * a single query to a database or cache tier
+ */
+@FunctionalInterface
+public interface BatchLoader {
+    /**
+     * Loads the results of the calls
+     *
+     * @param calls the arguments of each call
+     * @return the future of the results, one for each call and in the same order
+     */
+    @NotNull CompletableFuture<List<ConfigValue>> load(final @NotNull List<List<ConfigValue>> calls);
+}
@@ -0,0 +1,217 @@
+package me.devgabi.configstrings.cache;
+
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.metrics.Instrumentation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Concurrent cache with a maximum size, evicting with the clock algorithm when
+ * full: the entries are queued in insertion order, and an entry read since it
+ * was last passed is queued again instead of evicted, so each eviction is
+ * amortized constant time and approximates the least recently used entry.
+ * Concurrent misses on the same key run the loader once, and the other callers
+ * wait for its result.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class BoundedCache<K, V> {
+    private final int maximumSize;
+    private final @Nullable String name;
+    private final @NotNull ConcurrentHashMap<K, Node<V>> nodes;
+    private final @NotNull ConcurrentLinkedQueue<K> clock;
+    private final @NotNull LongAdder hits;
+    private final @NotNull LongAdder misses;
+    private final @NotNull LongAdder evictions;
+    private final @NotNull Object evictionLock;
+
+    public BoundedCache(final int maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * Creates a cache whose hits and misses are reported to the
+     * {@link me.devgabi.configstrings.metrics.EvaluationListener}
+     *
+     * @param maximumSize the maximum number of entries
+     * @param name        the cache name in the events, or null to not report them
+     */
+    public BoundedCache(final int maximumSize, final @Nullable String name) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive but got " + maximumSize);
+        }
+
+        this.maximumSize = maximumSize;
+        this.name = name;
+        this.nodes = new ConcurrentHashMap<>();
+        this.clock = new ConcurrentLinkedQueue<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.evictionLock = new Object();
+    }
+
+    /**
+     * Returns the cached value for the key, loading it when absent
+     *
+     * @param key    the key
+     * @param loader the function that computes the value on a miss
+     * @return the cached or loaded value
+     */
+    public @NotNull V get(final @NotNull K key, final @NotNull Function<? super K, ? extends V> loader) {
+        final Node<V> node = nodes.get(key);
+        if (node != null) {
+            hits.increment();
+            report(true);
+            return node.await();
+        }
+
+        final Node<V> created = new Node<>();
+        final Node<V> existing = nodes.putIfAbsent(key, created);
+        if (existing != null) {
+            hits.increment();
+            report(true);
+            return existing.await();
+        }
+
+        misses.increment();
+        report(false);
+        final V value;
+        try {
+            value = loader.apply(key);
+        } catch (final Throwable e) {
+            // errors too, like a stack overflow, or the waiting callers would block forever
+            nodes.remove(key, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        }
+        created.future.complete(value);
+        clock.offer(key);
+
+        if (nodes.size() > maximumSize) {
+            evict();
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the cached value for the key, without loading it when absent
+     *
+     * @param key the key
+     * @return the cached value, or null on a miss
+     */
+    public @Nullable V getIfPresent(final @NotNull K key) {
+        final Node<V> node = nodes.get(key);
+        if (node == null) {
+            misses.increment();
+            report(false);
+            return null;
+        }
+
+        hits.increment();
+        report(true);
+        return node.await();
+    }
+
+    public void clear() {
+        synchronized (evictionLock) {
+            // the clock first, so a concurrent load queues its key after it and stays evictable
+            clock.clear();
+            nodes.clear();
+        }
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public @Nullable String getName() {
+        return name;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void report(final boolean hit) {
+        if (name == null) return;
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener != null) {
+            listener.cacheAccessed(name, hit);
+        }
+    }
+
+    private void evict() {
+        synchronized (evictionLock) {
+            // every entry is passed at most twice, the second time its reference bit is clear
+            for (int remaining = 2 * nodes.size() + 1; remaining > 0 && nodes.size() > maximumSize; remaining--) {
+                final K key = clock.poll();
+                if (key == null) {
+                    return;
+                }
+
+                final Node<V> node = nodes.get(key);
+                if (node == null) {
+                    continue; // removed by clear
+                }
+
+                if (node.referenced) {
+                    node.referenced = false;
+                    clock.offer(key);
+                } else if (nodes.remove(key, node)) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private static final class Node<V> {
+        private final @NotNull CompletableFuture<V> future = new CompletableFuture<>();
+
+        // set when read, and cleared when the clock passes the entry
+        private volatile boolean referenced;
+
+        private V await() {
+            if (!referenced) {
+                referenced = true;
+            }
+
+            try {
+                return future.join();
+            } catch (final CompletionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+
+                throw e;
+            }
+        }
+    }
+}
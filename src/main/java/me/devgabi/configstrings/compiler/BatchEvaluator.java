@@ -0,0 +1,303 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Evaluates one template across many environments in parallel. The environments
+ * are split in chunks that run in the executor, and each chunk reuses its
+ * {@link Bindings} and output buffer between its environments.
+ * <p>
+ * The compiled templates are immutable, so the chunks share the same template.
+ * The first error of a chunk stops the other chunks, and is rethrown as is.
+ */
+public final class BatchEvaluator {
+    private static final int MINIMUM_CHUNK = 64;
+    private static final int UNSIZED_CHUNK = MINIMUM_CHUNK * 16;
+
+    // the chunks submitted and not yet completed, per thread of the executor
+    private static final int MAXIMUM_PENDING_PER_THREAD = 2;
+
+    private final @NotNull CompiledTemplate template;
+    private final @NotNull Executor executor;
+    private final int parallelism;
+
+    /**
+     * Creates a batch evaluator that runs in the common {@link ForkJoinPool}
+     *
+     * @param template the template
+     */
+    public BatchEvaluator(@NotNull CompiledTemplate template) {
+        this(template, ForkJoinPool.commonPool());
+    }
+
+    public BatchEvaluator(@NotNull CompiledTemplate template, @NotNull Executor executor) {
+        this.template = template;
+        this.executor = executor;
+        this.parallelism = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Evaluates the template with every environment
+     *
+     * @param environments the map environments
+     * @return the outputs, in the order of the environments
+     */
+    public @NotNull List<String> evaluate(final @NotNull List<? extends Map<String, ConfigValue>> environments) {
+        final List<String> outputs = new ArrayList<>(environments.size());
+        final Batch<List<String>> batch = new Batch<>(executor, maximumPending(), outputs::addAll);
+
+        run(environments.spliterator(), batch, chunk -> {
+            final Worker worker = new Worker(template);
+            final List<String> chunkOutputs = new ArrayList<>((int) chunk.estimateSize());
+            final Consumer<Map<String, ConfigValue>> evaluate = environment -> {
+                chunkOutputs.add(worker.evaluate(environment));
+            };
+
+            while (!batch.isFailed() && chunk.tryAdvance(evaluate)) {
+                // until the chunk ends, or another chunk fails
+            }
+
+            return chunkOutputs;
+        });
+
+        return outputs;
+    }
+
+    /**
+     * Evaluates the template with every environment, streaming the outputs to the
+     * sink as they are evaluated. The sink is called concurrently and in no
+     * particular order, with each environment and its output.
+     * <p>
+     * The environments are pulled as the chunks are submitted, and only a few
+     * chunks per thread are in flight, so a unsized spliterator, like the one of
+     * a iterator, is not buffered as a whole
+     *
+     * @param environments the map environments
+     * @param sink         the thread-safe sink
+     */
+    public void evaluate(
+            final @NotNull Spliterator<? extends Map<String, ConfigValue>> environments,
+            final @NotNull BiConsumer<? super Map<String, ConfigValue>, ? super String> sink
+    ) {
+        final Batch<Void> batch = new Batch<>(executor, maximumPending(), result -> {});
+
+        run(environments, batch, chunk -> {
+            final Worker worker = new Worker(template);
+            final Consumer<Map<String, ConfigValue>> evaluate = environment -> {
+                sink.accept(environment, worker.evaluate(environment));
+            };
+
+            while (!batch.isFailed() && chunk.tryAdvance(evaluate)) {
+                // until the chunk ends, or another chunk fails
+            }
+
+            return null;
+        });
+    }
+
+    public @NotNull CompiledTemplate getTemplate() {
+        return template;
+    }
+
+    private int maximumPending() {
+        return parallelism * MAXIMUM_PENDING_PER_THREAD;
+    }
+
+    /**
+     * Splits the environments in chunks, submitting each chunk to the batch as
+     * soon as it is split, in encounter order, and waits for all of them
+     *
+     * @param environments the map environments
+     * @param batch        the batch
+     * @param task         the evaluation of a chunk
+     * @throws RuntimeException the first error of a chunk, the others are cancelled
+     * @throws Error            the first error of a chunk, the others are cancelled
+     */
+    private <R> void run(
+            final @NotNull Spliterator<? extends Map<String, ConfigValue>> environments,
+            final @NotNull Batch<R> batch,
+            final @NotNull Function<Spliterator<? extends Map<String, ConfigValue>>, R> task
+    ) {
+        try {
+            final long size = environments.estimateSize();
+            if (size == Long.MAX_VALUE) {
+                pull(environments, batch, task);
+            } else {
+                split(environments, Math.max(MINIMUM_CHUNK, size / (parallelism * 4L)), batch, task);
+            }
+
+            batch.awaitAll();
+        } catch (final Throwable e) {
+            batch.cancel(e);
+            throw e;
+        }
+    }
+
+    private static <R> void split(
+            final @NotNull Spliterator<? extends Map<String, ConfigValue>> environments,
+            final long threshold,
+            final @NotNull Batch<R> batch,
+            final @NotNull Function<Spliterator<? extends Map<String, ConfigValue>>, R> task
+    ) {
+        while (environments.estimateSize() > threshold) {
+            final Spliterator<? extends Map<String, ConfigValue>> prefix = environments.trySplit();
+            if (prefix == null) break;
+
+            split(prefix, threshold, batch, task);
+        }
+
+        batch.submit(environments, task);
+    }
+
+    // the unsized spliterators would buffer ever larger prefixes when split, so the chunks are pulled instead
+    private static <R> void pull(
+            final @NotNull Spliterator<? extends Map<String, ConfigValue>> environments,
+            final @NotNull Batch<R> batch,
+            final @NotNull Function<Spliterator<? extends Map<String, ConfigValue>>, R> task
+    ) {
+        while (true) {
+            final List<Map<String, ConfigValue>> chunk = new ArrayList<>(UNSIZED_CHUNK);
+            while (chunk.size() < UNSIZED_CHUNK && environments.tryAdvance(chunk::add)) {
+                // until the chunk is full, or the environments end
+            }
+
+            if (!chunk.isEmpty()) {
+                batch.submit(chunk.spliterator(), task);
+            }
+
+            if (chunk.size() < UNSIZED_CHUNK) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The chunks of one evaluation, completed in encounter order. The first error
+     * of a chunk stops the others and is rethrown by the submitting thread
+     */
+    private static final class Batch<R> {
+        private final @NotNull Executor executor;
+        private final int maximumPending;
+        private final @NotNull Consumer<R> completed;
+        private final @NotNull Deque<CompletableFuture<R>> pending;
+        private final @NotNull AtomicReference<Throwable> failure;
+
+        private Batch(@NotNull Executor executor, int maximumPending, @NotNull Consumer<R> completed) {
+            this.executor = executor;
+            this.maximumPending = maximumPending;
+            this.completed = completed;
+            this.pending = new ArrayDeque<>();
+            this.failure = new AtomicReference<>();
+        }
+
+        private boolean isFailed() {
+            return failure.get() != null;
+        }
+
+        private void submit(
+                final @NotNull Spliterator<? extends Map<String, ConfigValue>> chunk,
+                final @NotNull Function<Spliterator<? extends Map<String, ConfigValue>>, R> task
+        ) {
+            // waits before pulling more environments, so only a few chunks are in memory
+            while (pending.size() >= maximumPending) {
+                awaitOldest();
+            }
+
+            checkFailure();
+            pending.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.apply(chunk);
+                } catch (final Throwable e) {
+                    // recorded before the future completes, so every waiter sees it
+                    failure.compareAndSet(null, e);
+                    throw e;
+                }
+            }, executor));
+        }
+
+        private void awaitAll() {
+            while (!pending.isEmpty()) {
+                awaitOldest();
+            }
+        }
+
+        private void awaitOldest() {
+            final CompletableFuture<R> future = pending.poll();
+            final R result;
+            try {
+                result = future.join();
+            } catch (final CompletionException | CancellationException e) {
+                checkFailure();
+                throw e;
+            }
+
+            // the result of a chunk stopped by the failure of another is incomplete
+            checkFailure();
+            completed.accept(result);
+        }
+
+        private void cancel(final @NotNull Throwable error) {
+            failure.compareAndSet(null, error);
+            for (final CompletableFuture<R> future : pending) {
+                future.cancel(false);
+            }
+            pending.clear();
+        }
+
+        private void checkFailure() {
+            final Throwable error = failure.get();
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+
+            if (error != null) {
+                throw new UndeclaredThrowableException(error);
+            }
+        }
+    }
+
+    /**
+     * The state of a chunk, reused between its environments
+     */
+    private static final class Worker {
+        private final @NotNull CompiledTemplate template;
+        private final @NotNull Bindings bindings;
+        private final @NotNull StringBuilder buffer;
+
+        private Worker(@NotNull CompiledTemplate template) {
+            this.template = template;
+            this.bindings = template.getLayout().bindings();
+            this.buffer = new StringBuilder();
+        }
+
+        private @NotNull String evaluate(final @NotNull Map<String, ConfigValue> environment) {
+            bindings.setAll(environment);
+
+            return template.evaluate(bindings, buffer);
+        }
+    }
+}
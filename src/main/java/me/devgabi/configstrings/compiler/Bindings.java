@@ -0,0 +1,95 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.value.ConfigNull;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The variable values of a evaluation, stored by the slots of a {@link SlotLayout}.
+ * The bindings are mutable and not thread-safe, but they can be reused between
+ * evaluations of the templates with the same layout.
+ */
+public final class Bindings {
+    private final @NotNull SlotLayout layout;
+    private final @Nullable ConfigValue @NotNull [] values;
+
+    Bindings(@NotNull SlotLayout layout) {
+        this.layout = layout;
+        this.values = new ConfigValue[layout.size()];
+    }
+
+    /**
+     * Returns the value of the slot
+     *
+     * @param slot the slot
+     * @return the value, or {@link ConfigNull} if unbound
+     */
+    public @NotNull ConfigValue get(final int slot) {
+        final ConfigValue value = values[slot];
+        if (value == null) {
+            return ConfigNull.INSTANCE;
+        }
+
+        return value;
+    }
+
+    public void set(final int slot, final @Nullable ConfigValue value) {
+        values[slot] = value;
+    }
+
+    /**
+     * Binds the variable by name, the variables not referenced by the template are ignored
+     *
+     * @param name  the variable name
+     * @param value the value
+     */
+    public void set(final @NotNull String name, final @Nullable ConfigValue value) {
+        final int slot = layout.slot(name);
+        if (slot >= 0) {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Binds every variable of the layout from a map environment
+     *
+     * @param environment a map environment
+     */
+    public void setAll(final @NotNull Map<String, ConfigValue> environment) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = environment.get(layout.name(i));
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+
+    /**
+     * Returns a copy of these bindings, that can be evaluated while these change
+     *
+     * @return the copy
+     */
+    public @NotNull Bindings copy() {
+        final Bindings copy = new Bindings(layout);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+
+        return copy;
+    }
+
+    public @NotNull SlotLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public String toString() {
+        return "Bindings{" +
+                "layout=" + layout +
+                ", values=" + Arrays.toString(values) +
+                '}';
+    }
+}
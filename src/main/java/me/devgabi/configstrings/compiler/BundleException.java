@@ -0,0 +1,31 @@
+package me.devgabi.configstrings.compiler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Thrown after a {@link TemplateBundle} evaluated every key, when some of them failed,
+ * the other keys keep their new outputs
+ */
+public final class BundleException extends RuntimeException {
+    private final @NotNull Map<String, RuntimeException> errors;
+
+    public BundleException(@NotNull Map<String, RuntimeException> errors) {
+        super(errors.size() + " bundle keys failed to evaluate: " + errors.keySet());
+        this.errors = errors;
+
+        for (final RuntimeException error : errors.values()) {
+            addSuppressed(error);
+        }
+    }
+
+    /**
+     * Returns the errors of the failed keys
+     *
+     * @return the errors by key, in the bundle order
+     */
+    public @NotNull Map<String, RuntimeException> getErrors() {
+        return errors;
+    }
+}
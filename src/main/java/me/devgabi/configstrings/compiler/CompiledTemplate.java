@@ -0,0 +1,293 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.async.AsyncBatch;
+import me.devgabi.configstrings.evaluator.EvalException;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.metrics.Instrumentation;
+import me.devgabi.configstrings.optimizer.Optimizer;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A expression compiled into pre-linked closures, it is immutable and can
+ * be evaluated concurrently with different environments.
+ * <p>
+ * After a number of evaluations the template is promoted to a method handle
+ * tier, if that compilation fails it keeps evaluating with the closures. The
+ * templates deeper than 32 levels, like long chains of operators, are never
+ * promoted, as their method handle trees run slower than the closures.
+ * <p>
+ * The variables are resolved to slots of a {@link SlotLayout} at compile time,
+ * evaluating with {@link Bindings} of that layout reads them by index, and the
+ * map environments are bound into new bindings, looking up each variable once.
+ */
+public final class CompiledTemplate {
+    // the JIT no longer compiles deeper method handle trees as a whole, and they run slower than the closures
+    private static final int MAXIMUM_PROMOTED_DEPTH = 32;
+
+    private final @NotNull Expr expr;
+    private final @NotNull SlotLayout layout;
+    private final @NotNull Node interpreted;
+
+    private volatile @NotNull Node active;
+
+    // evaluations left before promoting, read and written racily; negative when done
+    private int remaining;
+
+    // the recent output length, read and written racily, to presize the output buffers
+    private int lengthHint;
+
+    CompiledTemplate(@NotNull Expr expr, @NotNull SlotLayout layout, @NotNull Node interpreted, int promotionThreshold) {
+        this.expr = expr;
+        this.layout = layout;
+        this.interpreted = interpreted;
+        this.active = interpreted;
+        this.remaining = promotionThreshold;
+        this.lengthHint = expr instanceof Expr.Text ? ((Expr.Text) expr).estimateLength() : 16;
+    }
+
+    /**
+     * Evaluates the template into a value
+     *
+     * @param environment a map environment
+     * @return the evaluated value
+     */
+    public @NotNull ConfigValue evaluateValue(final @NotNull Map<String, ConfigValue> environment) {
+        return evaluateValue(layout.bind(environment));
+    }
+
+    /**
+     * Evaluates the template into a value
+     *
+     * @param bindings the bindings of this template layout
+     * @return the evaluated value
+     */
+    public @NotNull ConfigValue evaluateValue(final @NotNull Bindings bindings) {
+        checkLayout(bindings);
+        countEvaluation();
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return evaluateActive(bindings);
+        }
+
+        final long start = System.nanoTime();
+        final ConfigValue value;
+        try {
+            value = evaluateActive(bindings);
+        } catch (final EvalException e) {
+            if (!AsyncBatch.isSuspension(e)) {
+                listener.evaluated(expr, -1, System.nanoTime() - start, e);
+            }
+            throw e;
+        }
+
+        listener.evaluated(expr, -1, System.nanoTime() - start, null);
+
+        return value;
+    }
+
+    /**
+     * Evaluates the template into a string
+     *
+     * @param environment a map environment
+     * @return a evaluated string
+     */
+    public @NotNull String evaluate(final @NotNull Map<String, ConfigValue> environment) {
+        return evaluate(layout.bind(environment));
+    }
+
+    /**
+     * Evaluates the template into a string
+     *
+     * @param bindings the bindings of this template layout
+     * @return a evaluated string
+     */
+    public @NotNull String evaluate(final @NotNull Bindings bindings) {
+        if (isPromoted()) {
+            return evaluateValue(bindings).toString();
+        }
+
+        return evaluate(bindings, new StringBuilder(lengthHint));
+    }
+
+    /**
+     * Evaluates the template into a string, reusing the buffer for the closure tier
+     *
+     * @param bindings the bindings of this template layout
+     * @param buffer   the buffer, that is cleared before evaluating
+     * @return a evaluated string
+     */
+    @NotNull String evaluate(final @NotNull Bindings bindings, final @NotNull StringBuilder buffer) {
+        if (isPromoted()) {
+            return evaluateValue(bindings).toString();
+        }
+
+        checkLayout(bindings);
+        countEvaluation();
+
+        buffer.setLength(0);
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            appendTo(bindings, buffer);
+        } else {
+            final long start = System.nanoTime();
+            try {
+                appendTo(bindings, buffer);
+            } catch (final EvalException e) {
+                if (!AsyncBatch.isSuspension(e)) {
+                    listener.evaluated(expr, -1, System.nanoTime() - start, e);
+                }
+                throw e;
+            }
+
+            listener.evaluated(expr, buffer.length(), System.nanoTime() - start, null);
+        }
+
+        final String output = buffer.toString();
+        adaptLengthHint(output.length());
+
+        return output;
+    }
+
+    /**
+     * Evaluates the template straight into the output, like a {@link StringBuilder}
+     * or a {@link java.io.Writer}, nested texts append their segments without
+     * building intermediate strings
+     *
+     * @param environment a map environment
+     * @param output      the output
+     */
+    public void evaluateTo(final @NotNull Map<String, ConfigValue> environment, final @NotNull Appendable output) {
+        evaluateTo(layout.bind(environment), output);
+    }
+
+    /**
+     * Evaluates the template straight into the output
+     *
+     * @param bindings the bindings of this template layout
+     * @param output   the output
+     * @see #evaluateTo(Map, Appendable)
+     */
+    public void evaluateTo(final @NotNull Bindings bindings, final @NotNull Appendable output) {
+        checkLayout(bindings);
+        countEvaluation();
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            appendTo(bindings, output);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            appendTo(bindings, output);
+        } catch (final EvalException e) {
+            if (!AsyncBatch.isSuspension(e)) {
+                listener.evaluated(expr, -1, System.nanoTime() - start, e);
+            }
+            throw e;
+        }
+
+        listener.evaluated(expr, -1, System.nanoTime() - start, null);
+    }
+
+    /**
+     * Returns if the template was promoted to the method handle tier
+     *
+     * @return if the template is promoted
+     */
+    public boolean isPromoted() {
+        return active != interpreted;
+    }
+
+    /**
+     * Returns the optimized expression this template was compiled from
+     *
+     * @return the compiled expression
+     */
+    public @NotNull Expr getExpr() {
+        return expr;
+    }
+
+    /**
+     * Returns the variable slots of this template, to create its {@link Bindings}
+     *
+     * @return the layout
+     */
+    public @NotNull SlotLayout getLayout() {
+        return layout;
+    }
+
+    private void checkLayout(final @NotNull Bindings bindings) {
+        if (bindings.getLayout() != layout) {
+            throw new IllegalArgumentException("The bindings were not created by the layout of this template");
+        }
+    }
+
+    private @NotNull ConfigValue evaluateActive(final @NotNull Bindings bindings) {
+        try {
+            return active.evaluate(bindings);
+        } catch (final EvalException e) {
+            throw e;
+        } catch (final RuntimeException e) {
+            throw new EvalException(e);
+        }
+    }
+
+    // the closures append the segments of texts, and the method handles the string of the value
+    private void appendTo(final @NotNull Bindings bindings, final @NotNull Appendable output) {
+        try {
+            active.appendTo(bindings, output);
+        } catch (final EvalException e) {
+            throw e;
+        } catch (final IOException | RuntimeException e) {
+            throw new EvalException(e);
+        }
+    }
+
+    // grows to a longer output at once, and shrinks by half the difference to a shorter one
+    private void adaptLengthHint(final int length) {
+        final int hint = lengthHint;
+        if (length != hint) {
+            lengthHint = length > hint ? length : hint - ((hint - length) >> 1);
+        }
+    }
+
+    private void countEvaluation() {
+        final int remaining = this.remaining;
+        if (remaining > 0) {
+            this.remaining = remaining - 1;
+        } else if (remaining == 0) {
+            promote();
+        }
+    }
+
+    private synchronized void promote() {
+        if (remaining < 0) return;
+        remaining = -1;
+
+        if (Optimizer.depth(expr) > MAXIMUM_PROMOTED_DEPTH) return;
+
+        final EvaluationListener listener = Instrumentation.listener();
+        final long start = listener == null ? 0 : System.nanoTime();
+        try {
+            active = HandleCompiler.compile(expr, layout);
+        } catch (final RuntimeException | StackOverflowError e) {
+            // keeps the closures as the fallback tier
+            if (listener != null) {
+                listener.promoted(this, System.nanoTime() - start, e);
+            }
+            return;
+        }
+
+        if (listener != null) {
+            listener.promoted(this, System.nanoTime() - start, null);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.grammar.TokenType;
+import me.devgabi.configstrings.value.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+
+import static java.lang.invoke.MethodType.methodType;
+import static me.devgabi.configstrings.compiler.Operations.*;
+
+/**
+ * Compiles expressions into a single method handle tree of type
+ * {@code (Bindings)ConfigValue}. The JVM spins and customizes the bytecode
+ * of hot method handles, so the whole template becomes straight-line
+ * code that the JIT can inline, without any dispatch between nodes.
+ * <p>
+ * Nodes that only fail at runtime fall back to their closure {@link Node}.
+ */
+final class HandleCompiler implements Expr.Visitor<MethodHandle> {
+    private static final MethodType NODE_TYPE = methodType(ConfigValue.class, Bindings.class);
+
+    private static final MethodHandle NODE_EVALUATE;
+    private static final MethodHandle VARIABLE;
+    private static final MethodHandle GET;
+    private static final MethodHandle[] CALLS;
+    private static final MethodHandle CALL;
+    private static final MethodHandle TEXT;
+    private static final MethodHandle IS_NULL;
+    private static final MethodHandle CHECK_FUNCTION;
+    private static final MethodHandle NOT;
+    private static final MethodHandle NEGATE;
+    private static final MethodHandle EQUALS;
+    private static final MethodHandle NOT_EQUALS;
+    private static final MethodHandle BOOL;
+    private static final MethodHandle CHECK_BOOL;
+    private static final MethodHandle GREATER_EQUALS;
+    private static final MethodHandle GREATER;
+    private static final MethodHandle LESS;
+    private static final MethodHandle LESS_EQUALS;
+    private static final MethodHandle PLUS;
+    private static final MethodHandle MINUS;
+    private static final MethodHandle STAR;
+    private static final MethodHandle SLASH;
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodType unary = methodType(ConfigValue.class, ConfigValue.class);
+        final MethodType binary = methodType(ConfigValue.class, ConfigValue.class, ConfigValue.class);
+
+        try {
+            NODE_EVALUATE = lookup.findVirtual(Node.class, "evaluate", NODE_TYPE);
+            VARIABLE = lookup.findVirtual(Bindings.class, "get", methodType(ConfigValue.class, int.class));
+            GET = lookup.findStatic(HandleCompiler.class, "get",
+                    methodType(ConfigValue.class, ConfigValue.class, String.class));
+            CALLS = new MethodHandle[]{
+                    lookup.findStatic(HandleCompiler.class, "call", unary),
+                    lookup.findStatic(HandleCompiler.class, "call", binary),
+                    lookup.findStatic(HandleCompiler.class, "call",
+                            methodType(ConfigValue.class, ConfigValue.class, ConfigValue.class, ConfigValue.class)),
+                    lookup.findStatic(HandleCompiler.class, "call", methodType(ConfigValue.class,
+                            ConfigValue.class, ConfigValue.class, ConfigValue.class, ConfigValue.class)),
+            };
+            CALL = lookup.findStatic(HandleCompiler.class, "call",
+                    methodType(ConfigValue.class, ConfigValue.class, ConfigValue[].class));
+            TEXT = lookup.findStatic(HandleCompiler.class, "text",
+                    methodType(ConfigValue.class, String.class, int.class, ConfigValue[].class));
+            IS_NULL = lookup.findVirtual(ConfigValue.class, "isNull", methodType(boolean.class));
+            CHECK_FUNCTION = lookup.findStatic(HandleCompiler.class, "checkFunction", unary);
+            NOT = lookup.findStatic(HandleCompiler.class, "not", unary);
+            NEGATE = lookup.findStatic(HandleCompiler.class, "negate", unary);
+            EQUALS = lookup.findStatic(HandleCompiler.class, "equals", binary);
+            NOT_EQUALS = lookup.findStatic(HandleCompiler.class, "notEquals", binary);
+            BOOL = lookup.findStatic(Operations.class, "bool", methodType(boolean.class, ConfigValue.class));
+            CHECK_BOOL = lookup.findStatic(HandleCompiler.class, "checkBool", unary);
+            GREATER_EQUALS = lookup.findStatic(HandleCompiler.class, "greaterEquals", binary);
+            GREATER = lookup.findStatic(HandleCompiler.class, "greater", binary);
+            LESS = lookup.findStatic(HandleCompiler.class, "less", binary);
+            LESS_EQUALS = lookup.findStatic(HandleCompiler.class, "lessEquals", binary);
+            PLUS = lookup.findStatic(HandleCompiler.class, "plus", binary);
+            MINUS = lookup.findStatic(HandleCompiler.class, "minus", binary);
+            STAR = lookup.findStatic(HandleCompiler.class, "star", binary);
+            SLASH = lookup.findStatic(HandleCompiler.class, "slash", binary);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final @NotNull SlotLayout layout;
+    private final @NotNull NodeCompiler nodes;
+
+    private HandleCompiler(@NotNull SlotLayout layout) {
+        this.layout = layout;
+        this.nodes = new NodeCompiler(layout);
+    }
+
+    /**
+     * Compiles the expression into a method handle backed node
+     *
+     * @param expr   the target expression
+     * @param layout the variable slots of the expression
+     * @return the compiled node
+     */
+    static @NotNull Node compile(final @NotNull Expr expr, final @NotNull SlotLayout layout) {
+        final MethodHandle handle = expr.accept(new HandleCompiler(layout));
+
+        return bindings -> {
+            try {
+                return (ConfigValue) handle.invokeExact(bindings);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable throwable) {
+                throw new UndeclaredThrowableException(throwable);
+            }
+        };
+    }
+
+    @Override
+    public MethodHandle visitConstExpr(final Expr.Const expr) {
+        final ConfigValue value = ConfigValue.of(expr.getLiteral());
+
+        return MethodHandles.dropArguments(MethodHandles.constant(ConfigValue.class, value), 0, Bindings.class);
+    }
+
+    @Override
+    public MethodHandle visitGroupExpr(final Expr.Group expr) {
+        return visit(expr.getExpr());
+    }
+
+    @Override
+    public MethodHandle visitUnaryExpr(final Expr.Unary expr) {
+        switch (expr.getOp().getType()) {
+            case BANG:
+                return MethodHandles.filterReturnValue(visit(expr.getRhs()), NOT);
+
+            case MINUS:
+                return MethodHandles.filterReturnValue(visit(expr.getRhs()), NEGATE);
+        }
+
+        return fallback(expr);
+    }
+
+    @Override
+    public MethodHandle visitLogicalExpr(final Expr.Logical expr) {
+        if (expr.acceptBool()) {
+            switch (expr.getOp().getType()) {
+                case AND:
+                    return shortCircuit(visit(expr.getLhs()), visit(expr.getRhs()), false);
+
+                case OR:
+                    return shortCircuit(visit(expr.getLhs()), visit(expr.getRhs()), true);
+            }
+        }
+
+        final MethodHandle op = logicalOperation(expr);
+        if (op == null) {
+            return fallback(expr);
+        }
+
+        return sequence(op, visit(expr.getLhs()), visit(expr.getRhs()));
+    }
+
+    @Override
+    public MethodHandle visitBinaryExpr(final Expr.Binary expr) {
+        final MethodHandle op = binaryOperation(expr.getOp().getType());
+        if (op == null) {
+            return fallback(expr);
+        }
+
+        // the rhs is evaluated before the lhs
+        return sequence(op, visit(expr.getRhs()), visit(expr.getLhs()));
+    }
+
+    @Override
+    public MethodHandle visitVarExpr(final Expr.Var expr) {
+        final Object name = expr.getName().getLiteral();
+        if (name == null) {
+            return fallback(expr);
+        }
+
+        return MethodHandles.insertArguments(VARIABLE, 1, layout.slot(name.toString()));
+    }
+
+    @Override
+    public MethodHandle visitCallExpr(final Expr.Call expr) {
+        final List<Expr> arguments = expr.getArguments();
+        final MethodHandle call = arguments.size() < CALLS.length
+                ? CALLS[arguments.size()]
+                : CALL.asCollector(ConfigValue[].class, arguments.size());
+
+        final ConfigFunction linked = Linker.linkedFunction(expr);
+        if (linked != null) {
+            final MethodHandle[] children = new MethodHandle[arguments.size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = visit(arguments.get(i));
+            }
+
+            return sequence(MethodHandles.insertArguments(call, 0, linked), children);
+        }
+
+        final MethodHandle[] children = new MethodHandle[arguments.size() + 1];
+
+        children[0] = MethodHandles.filterReturnValue(visit(expr.getCallee()), CHECK_FUNCTION);
+        for (int i = 0; i < arguments.size(); i++) {
+            children[i + 1] = visit(arguments.get(i));
+        }
+
+        return sequence(call, children);
+    }
+
+    @Override
+    public MethodHandle visitGetExpr(final Expr.Get expr) {
+        final Object name = expr.getMember().getLiteral();
+        if (name == null) {
+            return fallback(expr);
+        }
+
+        final MethodHandle get = MethodHandles.insertArguments(GET, 1, name.toString());
+
+        return MethodHandles.filterReturnValue(visit(expr.getReceiver()), get);
+    }
+
+    @Override
+    public MethodHandle visitElvisExpr(final Expr.Elvis expr) {
+        final MethodHandle test = MethodHandles.dropArguments(IS_NULL, 1, Bindings.class);
+        final MethodHandle rhs = MethodHandles.dropArguments(visit(expr.getRhs()), 0, ConfigValue.class);
+        final MethodHandle lhs = MethodHandles.dropArguments(
+                MethodHandles.identity(ConfigValue.class), 1, Bindings.class
+        );
+
+        return MethodHandles.foldArguments(MethodHandles.guardWithTest(test, rhs, lhs), visit(expr.getLhs()));
+    }
+
+    @Override
+    public MethodHandle visitTextExpr(final Expr.Text text) {
+        final Object lhs = text.getLhs().getLiteral();
+        if (lhs == null) {
+            return fallback(text);
+        }
+
+        final List<Expr> interpolation = text.getInterpolation();
+        if (interpolation.isEmpty()) {
+            final ConfigValue value = ConfigString.of(lhs.toString());
+
+            return MethodHandles.dropArguments(MethodHandles.constant(ConfigValue.class, value), 0, Bindings.class);
+        }
+
+        final MethodHandle[] children = new MethodHandle[interpolation.size()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = visit(interpolation.get(i));
+        }
+
+        final MethodHandle op = MethodHandles.insertArguments(TEXT, 0, lhs.toString(), text.estimateLength())
+                .asCollector(ConfigValue[].class, children.length);
+
+        return sequence(op, children);
+    }
+
+    private MethodHandle fallback(final Expr expr) {
+        return NODE_EVALUATE.bindTo(nodes.visit(expr));
+    }
+
+    /**
+     * Evaluates every child, strictly in order, and passes their results to the operation
+     *
+     * @param op       a operation taking one value per child
+     * @param children the children of type {@code (Bindings)ConfigValue}
+     * @return a handle of type {@code (Bindings)ConfigValue}
+     */
+    private static MethodHandle sequence(final MethodHandle op, final MethodHandle... children) {
+        MethodHandle target = MethodHandles.dropArguments(op, children.length, Bindings.class);
+        for (int i = children.length - 1; i >= 0; i--) {
+            target = MethodHandles.foldArguments(target, i, children[i]);
+        }
+
+        return target;
+    }
+
+    /**
+     * Evaluates the lhs and only evaluates the rhs when the lhs is not the short value
+     *
+     * @param lhs        the lhs of type {@code (Bindings)ConfigValue}
+     * @param rhs        the rhs of type {@code (Bindings)ConfigValue}
+     * @param shortValue the lhs value that decides the result, false for {@code &&} and true for {@code ||}
+     * @return a handle of type {@code (Bindings)ConfigValue}
+     */
+    private static MethodHandle shortCircuit(final MethodHandle lhs, final MethodHandle rhs, final boolean shortValue) {
+        final MethodHandle test = MethodHandles.dropArguments(BOOL, 1, Bindings.class);
+        final MethodHandle result = MethodHandles.dropArguments(
+                MethodHandles.constant(ConfigValue.class, ConfigBool.of(shortValue)), 0, ConfigValue.class, Bindings.class
+        );
+        final MethodHandle next = MethodHandles.dropArguments(
+                MethodHandles.filterReturnValue(rhs, CHECK_BOOL), 0, ConfigValue.class
+        );
+
+        final MethodHandle target = shortValue
+                ? MethodHandles.guardWithTest(test, result, next)
+                : MethodHandles.guardWithTest(test, next, result);
+
+        return MethodHandles.foldArguments(target, lhs);
+    }
+
+    private static MethodHandle logicalOperation(final Expr.Logical expr) {
+        final TokenType op = expr.getOp().getType();
+
+        if (expr.acceptAny()) {
+            switch (op) {
+                case EQUALS_EQUALS:
+                    return EQUALS;
+
+                case BANG_EQUALS:
+                    return NOT_EQUALS;
+            }
+        } else if (expr.acceptNumeric()) {
+            switch (op) {
+                case GREATER_EQUALS:
+                    return GREATER_EQUALS;
+
+                case GREATER:
+                    return GREATER;
+
+                case LESS:
+                    return LESS;
+
+                case LESS_EQUALS:
+                    return LESS_EQUALS;
+            }
+        }
+
+        return null;
+    }
+
+    private static MethodHandle binaryOperation(final TokenType op) {
+        switch (op) {
+            case PLUS:
+                return PLUS;
+
+            case MINUS:
+                return MINUS;
+
+            case STAR:
+                return STAR;
+
+            case SLASH:
+                return SLASH;
+
+            default:
+                return null;
+        }
+    }
+
+    private static ConfigValue get(final ConfigValue receiver, final String member) {
+        return object(receiver).getMember(member);
+    }
+
+    private static ConfigValue call(final ConfigValue callee) {
+        return ((ConfigFunction) callee).invoke();
+    }
+
+    private static ConfigValue call(final ConfigValue callee, final ConfigValue first) {
+        return ((ConfigFunction) callee).invoke(first);
+    }
+
+    private static ConfigValue call(final ConfigValue callee, final ConfigValue first, final ConfigValue second) {
+        return ((ConfigFunction) callee).invoke(first, second);
+    }
+
+    private static ConfigValue call(
+            final ConfigValue callee,
+            final ConfigValue first,
+            final ConfigValue second,
+            final ConfigValue third
+    ) {
+        return ((ConfigFunction) callee).invoke(first, second, third);
+    }
+
+    private static ConfigValue call(final ConfigValue callee, final ConfigValue[] arguments) {
+        return ((ConfigFunction) callee).invoke(arguments);
+    }
+
+    private static ConfigValue text(final String prefix, final int estimate, final ConfigValue[] interpolation) {
+        final StringBuilder builder = new StringBuilder(estimate);
+        builder.append(prefix);
+        for (final ConfigValue element : interpolation) {
+            builder.append(element.toString());
+        }
+
+        return ConfigString.of(builder.toString());
+    }
+
+    private static ConfigValue checkFunction(final ConfigValue value) {
+        function(value);
+
+        return value;
+    }
+
+    private static ConfigValue not(final ConfigValue rhs) {
+        return ConfigBool.of(!bool(rhs));
+    }
+
+    private static ConfigValue negate(final ConfigValue rhs) {
+        return numeric(rhs).negate();
+    }
+
+    private static ConfigValue equals(final ConfigValue lhs, final ConfigValue rhs) {
+        return ConfigBool.of(lhs.equals(rhs));
+    }
+
+    private static ConfigValue notEquals(final ConfigValue lhs, final ConfigValue rhs) {
+        return ConfigBool.of(!lhs.equals(rhs));
+    }
+
+    private static ConfigValue checkBool(final ConfigValue value) {
+        return ConfigBool.of(bool(value));
+    }
+
+    private static ConfigValue greaterEquals(final ConfigValue lhs, final ConfigValue rhs) {
+        return ConfigBool.of(numeric(lhs).greaterEquals(numeric(rhs)));
+    }
+
+    private static ConfigValue greater(final ConfigValue lhs, final ConfigValue rhs) {
+        return ConfigBool.of(numeric(lhs).greater(numeric(rhs)));
+    }
+
+    private static ConfigValue less(final ConfigValue lhs, final ConfigValue rhs) {
+        return ConfigBool.of(numeric(lhs).less(numeric(rhs)));
+    }
+
+    private static ConfigValue lessEquals(final ConfigValue lhs, final ConfigValue rhs) {
+        return ConfigBool.of(numeric(lhs).lessEquals(numeric(rhs)));
+    }
+
+    private static ConfigValue plus(final ConfigValue rhs, final ConfigValue lhs) {
+        if (lhs instanceof ConfigString) {
+            return ConfigString.of(((ConfigString) lhs).unwrap() + rhs.toString());
+        }
+
+        final ConfigNumeric rhsNumeric = numeric(rhs);
+
+        return numeric(lhs).plus(rhsNumeric);
+    }
+
+    private static ConfigValue minus(final ConfigValue rhs, final ConfigValue lhs) {
+        final ConfigNumeric rhsNumeric = numeric(rhs);
+
+        return numeric(lhs).minus(rhsNumeric);
+    }
+
+    private static ConfigValue star(final ConfigValue rhs, final ConfigValue lhs) {
+        final ConfigNumeric rhsNumeric = numeric(rhs);
+
+        return numeric(lhs).times(rhsNumeric);
+    }
+
+    private static ConfigValue slash(final ConfigValue rhs, final ConfigValue lhs) {
+        final ConfigNumeric rhsNumeric = numeric(rhs);
+
+        return numeric(lhs).div(rhsNumeric);
+    }
+}
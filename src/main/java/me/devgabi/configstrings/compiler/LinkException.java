@@ -0,0 +1,34 @@
+package me.devgabi.configstrings.compiler;
+
+import org.jetbrains.annotations.NotNull;
+
+public final class LinkException extends RuntimeException {
+    private final int index;
+    private final @NotNull String name;
+    private final int arity;
+    private final int arguments;
+
+    public LinkException(int index, @NotNull String name, int arity, int arguments) {
+        super("Function " + name + " expects at least " + arity + " arguments but got " + arguments + " in index " + index);
+        this.index = index;
+        this.name = name;
+        this.arity = arity;
+        this.arguments = arguments;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    public int getArguments() {
+        return arguments;
+    }
+}
@@ -0,0 +1,128 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigFunction;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Links the calls of registry functions, replacing their callee variable by the
+ * function constant and checking the arity of the call site
+ */
+final class Linker implements Expr.Visitor<Expr> {
+    private final @NotNull Map<String, ConfigValue> registry;
+    private int linkedCalls;
+
+    Linker(@NotNull Map<String, ConfigValue> registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Returns how many calls were linked
+     *
+     * @return the linked calls
+     */
+    int getLinkedCalls() {
+        return linkedCalls;
+    }
+
+    /**
+     * Returns the function a call was linked to
+     *
+     * @param expr the call
+     * @return the linked function, or null if the call is dynamic
+     */
+    static @Nullable ConfigFunction linkedFunction(final @NotNull Expr.Call expr) {
+        if (expr.getCallee() instanceof Expr.Const) {
+            final Object literal = ((Expr.Const) expr.getCallee()).getLiteral();
+            if (literal instanceof ConfigFunction) {
+                return (ConfigFunction) literal;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public Expr visitConstExpr(final Expr.Const expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitGroupExpr(final Expr.Group expr) {
+        return new Expr.Group(visit(expr.getExpr()));
+    }
+
+    @Override
+    public Expr visitUnaryExpr(final Expr.Unary expr) {
+        return new Expr.Unary(expr.getOp(), visit(expr.getRhs()));
+    }
+
+    @Override
+    public Expr visitLogicalExpr(final Expr.Logical expr) {
+        return new Expr.Logical(visit(expr.getLhs()), expr.getOp(), visit(expr.getRhs()));
+    }
+
+    @Override
+    public Expr visitBinaryExpr(final Expr.Binary expr) {
+        return new Expr.Binary(visit(expr.getLhs()), expr.getOp(), visit(expr.getRhs()));
+    }
+
+    @Override
+    public Expr visitVarExpr(final Expr.Var expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitCallExpr(final Expr.Call expr) {
+        final List<Expr> arguments = visitAll(expr.getArguments());
+        if (!(expr.getCallee() instanceof Expr.Var)) {
+            return new Expr.Call(visit(expr.getCallee()), arguments);
+        }
+
+        final Expr.Var callee = (Expr.Var) expr.getCallee();
+        final Object name = callee.getName().getLiteral();
+        final ConfigValue value = name == null ? null : registry.get(name.toString());
+        if (!(value instanceof ConfigFunction)) {
+            return new Expr.Call(callee, arguments);
+        }
+
+        final ConfigFunction function = (ConfigFunction) value;
+        if (function.arity() > arguments.size()) {
+            throw new LinkException(callee.getName().getPosition(), name.toString(), function.arity(), arguments.size());
+        }
+
+        linkedCalls++;
+
+        return new Expr.Call(new Expr.Const(function), arguments);
+    }
+
+    @Override
+    public Expr visitGetExpr(final Expr.Get expr) {
+        return new Expr.Get(visit(expr.getReceiver()), expr.getMember());
+    }
+
+    @Override
+    public Expr visitElvisExpr(final Expr.Elvis expr) {
+        return new Expr.Elvis(visit(expr.getLhs()), visit(expr.getRhs()));
+    }
+
+    @Override
+    public Expr visitTextExpr(final Expr.Text text) {
+        return new Expr.Text(text.getLhs(), visitAll(text.getInterpolation()));
+    }
+
+    private List<Expr> visitAll(final List<Expr> exprs) {
+        final List<Expr> linked = new ArrayList<>(exprs.size());
+        for (final Expr element : exprs) {
+            linked.add(visit(element));
+        }
+
+        return linked;
+    }
+}
@@ -0,0 +1,21 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * A pre-linked closure of a compiled expression
+ */
+@FunctionalInterface
+interface Node {
+    @NotNull ConfigValue evaluate(final @NotNull Bindings bindings);
+
+    default void appendTo(
+            final @NotNull Bindings bindings,
+            final @NotNull Appendable output
+    ) throws IOException {
+        output.append(evaluate(bindings).toString());
+    }
+}
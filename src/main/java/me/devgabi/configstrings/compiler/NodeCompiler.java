@@ -0,0 +1,376 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.evaluator.EvalException;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.grammar.TokenType;
+import me.devgabi.configstrings.value.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+import static me.devgabi.configstrings.compiler.Operations.*;
+
+/**
+ * Compiles expressions into closure {@link Node}s, reading the variables
+ * by their slots in the layout
+ */
+final class NodeCompiler implements Expr.Visitor<Node> {
+    private final @NotNull SlotLayout layout;
+
+    NodeCompiler(@NotNull SlotLayout layout) {
+        this.layout = layout;
+    }
+
+    @Override
+    public Node visitConstExpr(final Expr.Const expr) {
+        final ConfigValue value = ConfigValue.of(expr.getLiteral());
+
+        return bindings -> value;
+    }
+
+    @Override
+    public Node visitGroupExpr(final Expr.Group expr) {
+        return visit(expr.getExpr());
+    }
+
+    @Override
+    public Node visitUnaryExpr(final Expr.Unary expr) {
+        final TokenType op = expr.getOp().getType();
+        final Node rhs = visit(expr.getRhs());
+
+        switch (op) {
+            case BANG:
+                return bindings -> ConfigBool.of(!bool(rhs.evaluate(bindings)));
+
+            case MINUS:
+                return bindings -> numeric(rhs.evaluate(bindings)).negate();
+        }
+
+        return bindings -> {
+            throw unsupported("unary", op);
+        };
+    }
+
+    @Override
+    public Node visitLogicalExpr(final Expr.Logical expr) {
+        final TokenType op = expr.getOp().getType();
+        final Node lhs = visit(expr.getLhs());
+        final Node rhs = visit(expr.getRhs());
+
+        if (expr.acceptAny()) {
+            switch (op) {
+                case EQUALS_EQUALS:
+                    return bindings -> {
+                        final ConfigValue lhsValue = lhs.evaluate(bindings);
+
+                        return ConfigBool.of(lhsValue.equals(rhs.evaluate(bindings)));
+                    };
+
+                case BANG_EQUALS:
+                    return bindings -> {
+                        final ConfigValue lhsValue = lhs.evaluate(bindings);
+
+                        return ConfigBool.of(!lhsValue.equals(rhs.evaluate(bindings)));
+                    };
+            }
+        } else if (expr.acceptBool()) {
+            switch (op) {
+                case AND:
+                    return bindings -> {
+                        if (!bool(lhs.evaluate(bindings))) {
+                            return ConfigBool.FALSE;
+                        }
+
+                        return ConfigBool.of(bool(rhs.evaluate(bindings)));
+                    };
+
+                case OR:
+                    return bindings -> {
+                        if (bool(lhs.evaluate(bindings))) {
+                            return ConfigBool.TRUE;
+                        }
+
+                        return ConfigBool.of(bool(rhs.evaluate(bindings)));
+                    };
+            }
+        } else if (expr.acceptNumeric()) {
+            switch (op) {
+                case GREATER_EQUALS:
+                    return bindings -> {
+                        final ConfigValue lhsValue = lhs.evaluate(bindings);
+                        final ConfigValue rhsValue = rhs.evaluate(bindings);
+
+                        return ConfigBool.of(numeric(lhsValue).greaterEquals(numeric(rhsValue)));
+                    };
+
+                case GREATER:
+                    return bindings -> {
+                        final ConfigValue lhsValue = lhs.evaluate(bindings);
+                        final ConfigValue rhsValue = rhs.evaluate(bindings);
+
+                        return ConfigBool.of(numeric(lhsValue).greater(numeric(rhsValue)));
+                    };
+
+                case LESS:
+                    return bindings -> {
+                        final ConfigValue lhsValue = lhs.evaluate(bindings);
+                        final ConfigValue rhsValue = rhs.evaluate(bindings);
+
+                        return ConfigBool.of(numeric(lhsValue).less(numeric(rhsValue)));
+                    };
+
+                case LESS_EQUALS:
+                    return bindings -> {
+                        final ConfigValue lhsValue = lhs.evaluate(bindings);
+                        final ConfigValue rhsValue = rhs.evaluate(bindings);
+
+                        return ConfigBool.of(numeric(lhsValue).lessEquals(numeric(rhsValue)));
+                    };
+            }
+        }
+
+        return bindings -> {
+            lhs.evaluate(bindings);
+            rhs.evaluate(bindings);
+
+            throw unsupported("logical", op);
+        };
+    }
+
+    @Override
+    public Node visitBinaryExpr(final Expr.Binary expr) {
+        final TokenType op = expr.getOp().getType();
+        final Node lhs = visit(expr.getLhs());
+        final Node rhs = visit(expr.getRhs());
+
+        switch (op) {
+            case PLUS:
+                return bindings -> {
+                    final ConfigValue rhsValue = rhs.evaluate(bindings);
+                    final ConfigValue lhsValue = lhs.evaluate(bindings);
+                    if (lhsValue instanceof ConfigString) {
+                        return ConfigString.of(((ConfigString) lhsValue).unwrap() + rhsValue.toString());
+                    }
+
+                    final ConfigNumeric rhsNumeric = numeric(rhsValue);
+
+                    return numeric(lhsValue).plus(rhsNumeric);
+                };
+
+            case MINUS:
+                return bindings -> {
+                    final ConfigValue rhsValue = rhs.evaluate(bindings);
+                    final ConfigValue lhsValue = lhs.evaluate(bindings);
+                    final ConfigNumeric rhsNumeric = numeric(rhsValue);
+
+                    return numeric(lhsValue).minus(rhsNumeric);
+                };
+
+            case STAR:
+                return bindings -> {
+                    final ConfigValue rhsValue = rhs.evaluate(bindings);
+                    final ConfigValue lhsValue = lhs.evaluate(bindings);
+                    final ConfigNumeric rhsNumeric = numeric(rhsValue);
+
+                    return numeric(lhsValue).times(rhsNumeric);
+                };
+
+            case SLASH:
+                return bindings -> {
+                    final ConfigValue rhsValue = rhs.evaluate(bindings);
+                    final ConfigValue lhsValue = lhs.evaluate(bindings);
+                    final ConfigNumeric rhsNumeric = numeric(rhsValue);
+
+                    return numeric(lhsValue).div(rhsNumeric);
+                };
+        }
+
+        return bindings -> {
+            final ConfigValue rhsValue = rhs.evaluate(bindings);
+            final ConfigValue lhsValue = lhs.evaluate(bindings);
+            numeric(rhsValue);
+            numeric(lhsValue);
+
+            throw unsupported("binary", op);
+        };
+    }
+
+    @Override
+    public Node visitVarExpr(final Expr.Var expr) {
+        final Object name = expr.getName().getLiteral();
+        if (name == null) {
+            return bindings -> {
+                throw new EvalException("Expecting accessing a named variable");
+            };
+        }
+
+        final int slot = layout.slot(name.toString());
+
+        return bindings -> bindings.get(slot);
+    }
+
+    @Override
+    public Node visitCallExpr(final Expr.Call expr) {
+        final ConfigFunction linked = Linker.linkedFunction(expr);
+        if (linked != null) {
+            return linkedCall(linked, visitAll(expr.getArguments()));
+        }
+
+        final Node callee = visit(expr.getCallee());
+        final Node[] arguments = visitAll(expr.getArguments());
+
+        switch (arguments.length) {
+            case 0:
+                return bindings -> function(callee.evaluate(bindings)).invoke();
+
+            case 1: {
+                final Node first = arguments[0];
+
+                return bindings -> function(callee.evaluate(bindings)).invoke(first.evaluate(bindings));
+            }
+
+            case 2: {
+                final Node first = arguments[0];
+                final Node second = arguments[1];
+
+                return bindings -> {
+                    final ConfigFunction function = function(callee.evaluate(bindings));
+                    final ConfigValue firstValue = first.evaluate(bindings);
+
+                    return function.invoke(firstValue, second.evaluate(bindings));
+                };
+            }
+
+            case 3: {
+                final Node first = arguments[0];
+                final Node second = arguments[1];
+                final Node third = arguments[2];
+
+                return bindings -> {
+                    final ConfigFunction function = function(callee.evaluate(bindings));
+                    final ConfigValue firstValue = first.evaluate(bindings);
+                    final ConfigValue secondValue = second.evaluate(bindings);
+
+                    return function.invoke(firstValue, secondValue, third.evaluate(bindings));
+                };
+            }
+        }
+
+        return bindings -> {
+            final ConfigFunction function = function(callee.evaluate(bindings));
+            final ConfigValue[] values = new ConfigValue[arguments.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arguments[i].evaluate(bindings);
+            }
+
+            return function.invoke(values);
+        };
+    }
+
+    @Override
+    public Node visitGetExpr(final Expr.Get expr) {
+        final Node receiver = visit(expr.getReceiver());
+        final Object name = expr.getMember().getLiteral();
+        if (name == null) {
+            return bindings -> {
+                object(receiver.evaluate(bindings));
+
+                throw new EvalException("Expecting a named member");
+            };
+        }
+
+        final String member = name.toString();
+
+        return bindings -> object(receiver.evaluate(bindings)).getMember(member);
+    }
+
+    @Override
+    public Node visitElvisExpr(final Expr.Elvis expr) {
+        final Node lhs = visit(expr.getLhs());
+        final Node rhs = visit(expr.getRhs());
+
+        return bindings -> {
+            final ConfigValue lhsValue = lhs.evaluate(bindings);
+            if (lhsValue.isNull()) {
+                return rhs.evaluate(bindings);
+            }
+
+            return lhsValue;
+        };
+    }
+
+    @Override
+    public Node visitTextExpr(final Expr.Text text) {
+        final Object lhs = text.getLhs().getLiteral();
+        if (lhs == null) {
+            return bindings -> {
+                throw new EvalException("LHS is null");
+            };
+        }
+
+        final String prefix = lhs.toString();
+        final Node[] interpolation = visitAll(text.getInterpolation());
+        if (interpolation.length == 0) {
+            final ConfigValue value = ConfigString.of(prefix);
+
+            return bindings -> value;
+        }
+
+        return new TextNode(prefix, interpolation, text.estimateLength());
+    }
+
+    private static Node linkedCall(final ConfigFunction function, final Node[] arguments) {
+        switch (arguments.length) {
+            case 0:
+                return bindings -> function.invoke();
+
+            case 1: {
+                final Node first = arguments[0];
+
+                return bindings -> function.invoke(first.evaluate(bindings));
+            }
+
+            case 2: {
+                final Node first = arguments[0];
+                final Node second = arguments[1];
+
+                return bindings -> {
+                    final ConfigValue firstValue = first.evaluate(bindings);
+
+                    return function.invoke(firstValue, second.evaluate(bindings));
+                };
+            }
+
+            case 3: {
+                final Node first = arguments[0];
+                final Node second = arguments[1];
+                final Node third = arguments[2];
+
+                return bindings -> {
+                    final ConfigValue firstValue = first.evaluate(bindings);
+                    final ConfigValue secondValue = second.evaluate(bindings);
+
+                    return function.invoke(firstValue, secondValue, third.evaluate(bindings));
+                };
+            }
+        }
+
+        return bindings -> {
+            final ConfigValue[] values = new ConfigValue[arguments.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arguments[i].evaluate(bindings);
+            }
+
+            return function.invoke(values);
+        };
+    }
+
+    private Node[] visitAll(final List<Expr> exprs) {
+        final Node[] nodes = new Node[exprs.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = visit(exprs.get(i));
+        }
+
+        return nodes;
+    }
+}
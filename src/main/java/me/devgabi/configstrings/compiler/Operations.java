@@ -0,0 +1,51 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.evaluator.EvalException;
+import me.devgabi.configstrings.evaluator.TypeException;
+import me.devgabi.configstrings.grammar.TokenType;
+import me.devgabi.configstrings.value.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Type checked operations shared by the compiled closures, they follow
+ * the same semantics of {@link me.devgabi.configstrings.evaluator.Evaluator}
+ */
+final class Operations {
+    private Operations() {}
+
+    static boolean bool(final @NotNull ConfigValue value) {
+        if (!(value instanceof ConfigBool)) {
+            throw new TypeException(ConfigBool.TYPE_NAME, value.getTypeName());
+        }
+
+        return ((ConfigBool) value).unwrap();
+    }
+
+    static @NotNull ConfigNumeric numeric(final @NotNull ConfigValue value) {
+        if (!(value instanceof ConfigNumeric)) {
+            throw new TypeException(ConfigNumeric.TYPE_NAME, value.getTypeName());
+        }
+
+        return (ConfigNumeric) value;
+    }
+
+    static @NotNull ConfigFunction function(final @NotNull ConfigValue value) {
+        if (!(value instanceof ConfigFunction)) {
+            throw new TypeException(ConfigFunction.TYPE_NAME, value.getTypeName());
+        }
+
+        return (ConfigFunction) value;
+    }
+
+    static @NotNull ConfigObject object(final @NotNull ConfigValue value) {
+        if (!(value instanceof ConfigObject)) {
+            throw new TypeException(ConfigObject.TYPE_NAME, value.getTypeName());
+        }
+
+        return (ConfigObject) value;
+    }
+
+    static @NotNull EvalException unsupported(final @NotNull String kind, final @NotNull TokenType op) {
+        return new EvalException("Unsupported " + kind + " operation " + op);
+    }
+}
@@ -0,0 +1,167 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The variable slots of a compiled template, each distinct variable name
+ * referenced by the expression is resolved to a index at compile time, so
+ * the variable accesses are array loads in the {@link Bindings}.
+ */
+public final class SlotLayout {
+    private final @NotNull String[] names;
+    private final @NotNull Map<String, Integer> slots;
+
+    private SlotLayout(@NotNull String[] names) {
+        this.names = names;
+        this.slots = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            slots.put(names[i], i);
+        }
+    }
+
+    /**
+     * Resolves the variables of the expression, in the order they first appear
+     *
+     * @param expr the target expression
+     * @return the layout
+     */
+    static @NotNull SlotLayout of(final @NotNull Expr expr) {
+        final Resolver resolver = new Resolver();
+        resolver.visit(expr);
+
+        return new SlotLayout(resolver.names.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the slot of the variable
+     *
+     * @param name the variable name
+     * @return the slot, or -1 if the template does not reference the variable
+     */
+    public int slot(final @NotNull String name) {
+        final Integer slot = slots.get(name);
+        if (slot == null) {
+            return -1;
+        }
+
+        return slot;
+    }
+
+    public @NotNull String name(final int slot) {
+        return names[slot];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public @NotNull List<String> names() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Creates empty bindings for this layout, that can be filled and reused
+     * between evaluations
+     *
+     * @return the bindings
+     */
+    public @NotNull Bindings bindings() {
+        return new Bindings(this);
+    }
+
+    /**
+     * Creates bindings for this layout filled from a map environment, looking
+     * up each variable once
+     *
+     * @param environment a map environment
+     * @return the bindings
+     */
+    public @NotNull Bindings bind(final @NotNull Map<String, ConfigValue> environment) {
+        final Bindings bindings = new Bindings(this);
+        bindings.setAll(environment);
+
+        return bindings;
+    }
+
+    @Override
+    public String toString() {
+        return "SlotLayout{" +
+                "names=" + Arrays.toString(names) +
+                '}';
+    }
+
+    private static final class Resolver implements Expr.Visitor<Void> {
+        private final @NotNull Set<String> names = new LinkedHashSet<>();
+
+        @Override
+        public Void visitConstExpr(final Expr.Const expr) {
+            return null;
+        }
+
+        @Override
+        public Void visitGroupExpr(final Expr.Group expr) {
+            return visit(expr.getExpr());
+        }
+
+        @Override
+        public Void visitUnaryExpr(final Expr.Unary expr) {
+            return visit(expr.getRhs());
+        }
+
+        @Override
+        public Void visitLogicalExpr(final Expr.Logical expr) {
+            visit(expr.getLhs());
+            return visit(expr.getRhs());
+        }
+
+        @Override
+        public Void visitBinaryExpr(final Expr.Binary expr) {
+            visit(expr.getLhs());
+            return visit(expr.getRhs());
+        }
+
+        @Override
+        public Void visitVarExpr(final Expr.Var expr) {
+            final Object name = expr.getName().getLiteral();
+            if (name != null) {
+                names.add(name.toString());
+            }
+
+            return null;
+        }
+
+        @Override
+        public Void visitCallExpr(final Expr.Call expr) {
+            visit(expr.getCallee());
+            return visitAll(expr.getArguments());
+        }
+
+        @Override
+        public Void visitGetExpr(final Expr.Get expr) {
+            return visit(expr.getReceiver());
+        }
+
+        @Override
+        public Void visitElvisExpr(final Expr.Elvis expr) {
+            visit(expr.getLhs());
+            return visit(expr.getRhs());
+        }
+
+        @Override
+        public Void visitTextExpr(final Expr.Text text) {
+            return visitAll(text.getInterpolation());
+        }
+
+        private Void visitAll(final List<Expr> exprs) {
+            for (final Expr element : exprs) {
+                visit(element);
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of keyed templates evaluated together, like the values of a config file.
+ * The free variables of each template are the names of its {@link SlotLayout},
+ * so the bundle knows which keys depend on each variable, and when variables
+ * change it only evaluates the affected keys again, keeping the other outputs.
+ * <p>
+ * A key that fails to evaluate does not stop the others: its output is removed,
+ * its error is kept until it evaluates again, and once every key was evaluated a
+ * {@link BundleException} with the errors of this evaluation is thrown.
+ */
+public final class TemplateBundle {
+    private final @NotNull Map<String, Entry> entries;
+    private final @NotNull Map<String, Set<String>> dependents;
+    private final @NotNull Map<String, ConfigValue> environment;
+    private final @NotNull Map<String, String> outputs;
+    private final @NotNull Map<String, RuntimeException> errors;
+
+    /**
+     * Creates a bundle of compiled templates
+     *
+     * @param templates the templates by key
+     */
+    public TemplateBundle(final @NotNull Map<String, CompiledTemplate> templates) {
+        this.entries = new LinkedHashMap<>();
+        this.dependents = new HashMap<>();
+        this.environment = new HashMap<>();
+        this.outputs = new HashMap<>();
+        this.errors = new HashMap<>();
+
+        for (final Map.Entry<String, CompiledTemplate> template : templates.entrySet()) {
+            final String key = template.getKey();
+            final CompiledTemplate compiled = template.getValue();
+            entries.put(key, new Entry(compiled));
+
+            for (final String variable : compiled.getLayout().names()) {
+                dependents.computeIfAbsent(variable, name -> new LinkedHashSet<>()).add(key);
+            }
+        }
+    }
+
+    /**
+     * Evaluates every key with the environment, that replaces the previous one
+     *
+     * @param environment a map environment
+     * @return the outputs by key
+     * @throws BundleException if some keys failed, after evaluating the others
+     */
+    public synchronized @NotNull Map<String, String> evaluate(final @NotNull Map<String, ConfigValue> environment) {
+        this.environment.clear();
+        this.environment.putAll(environment);
+
+        final Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+            entry.getValue().bindings.setAll(environment);
+            evaluate(entry.getKey(), failed);
+        }
+
+        if (!failed.isEmpty()) {
+            throw new BundleException(failed);
+        }
+
+        return getOutputs();
+    }
+
+    /**
+     * Changes a variable and evaluates again the keys that depend on it
+     *
+     * @param variable the variable name
+     * @param value    the new value, or null to remove it
+     * @return the evaluated keys
+     * @throws BundleException if some keys failed, after evaluating the others
+     */
+    public synchronized @NotNull Set<String> update(final @NotNull String variable, final @Nullable ConfigValue value) {
+        return update(Collections.singletonMap(variable, value));
+    }
+
+    /**
+     * Changes the variables and evaluates again the keys that depend on any of them, once
+     *
+     * @param changes the new values by variable name, null values remove the variable
+     * @return the evaluated keys
+     * @throws BundleException if some keys failed, after evaluating the others
+     */
+    public synchronized @NotNull Set<String> update(final @NotNull Map<String, ConfigValue> changes) {
+        final Set<String> affected = new LinkedHashSet<>();
+
+        for (final Map.Entry<String, ConfigValue> change : changes.entrySet()) {
+            final String variable = change.getKey();
+            final ConfigValue value = change.getValue();
+            if (value == null ? !environment.containsKey(variable) : ConfigValue.same(value, environment.get(variable))) {
+                continue;
+            }
+
+            if (value == null) {
+                environment.remove(variable);
+            } else {
+                environment.put(variable, value);
+            }
+
+            for (final String key : dependents.getOrDefault(variable, Collections.emptySet())) {
+                entries.get(key).bindings.set(variable, value);
+                affected.add(key);
+            }
+        }
+
+        final Map<String, RuntimeException> failed = new LinkedHashMap<>();
+        for (final String key : affected) {
+            evaluate(key, failed);
+        }
+
+        if (!failed.isEmpty()) {
+            throw new BundleException(failed);
+        }
+
+        return affected;
+    }
+
+    /**
+     * Returns the last output of the key
+     *
+     * @param key the key
+     * @return the output, or null if the key was not evaluated or its last evaluation failed
+     */
+    public synchronized @Nullable String get(final @NotNull String key) {
+        return outputs.get(key);
+    }
+
+    /**
+     * Returns a snapshot of the last outputs
+     *
+     * @return the outputs by key, in the bundle order
+     */
+    public synchronized @NotNull Map<String, String> getOutputs() {
+        return snapshot(outputs);
+    }
+
+    /**
+     * Returns the errors of the keys whose last evaluation failed
+     *
+     * @return the errors by key, in the bundle order
+     */
+    public synchronized @NotNull Map<String, RuntimeException> getErrors() {
+        return snapshot(errors);
+    }
+
+    /**
+     * Returns the free variables of the key, that it depends on
+     *
+     * @param key the key
+     * @return the variable names
+     */
+    public @NotNull Set<String> dependencies(final @NotNull String key) {
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            return Collections.emptySet();
+        }
+
+        return new LinkedHashSet<>(entry.template.getLayout().names());
+    }
+
+    /**
+     * Returns the keys that depend on the variable
+     *
+     * @param variable the variable name
+     * @return the keys
+     */
+    public @NotNull Set<String> dependents(final @NotNull String variable) {
+        return Collections.unmodifiableSet(dependents.getOrDefault(variable, Collections.emptySet()));
+    }
+
+    /**
+     * Returns the keys of this bundle, in the order they were given
+     *
+     * @return the keys
+     */
+    public @NotNull Set<String> keys() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Returns the compiled template of the key
+     *
+     * @param key the key
+     * @return the compiled template
+     */
+    public @NotNull CompiledTemplate getTemplate(final @NotNull String key) {
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown bundle key " + key);
+        }
+
+        return entry.template;
+    }
+
+    // keeps the error instead of the output when the key fails, so the other keys still evaluate
+    private void evaluate(final @NotNull String key, final @NotNull Map<String, RuntimeException> failed) {
+        final Entry entry = entries.get(key);
+        try {
+            outputs.put(key, entry.template.evaluate(entry.bindings));
+            errors.remove(key);
+        } catch (final RuntimeException e) {
+            outputs.remove(key);
+            errors.put(key, e);
+            failed.put(key, e);
+        }
+    }
+
+    private <V> @NotNull Map<String, V> snapshot(final @NotNull Map<String, V> values) {
+        final Map<String, V> snapshot = new LinkedHashMap<>();
+        for (final String key : entries.keySet()) {
+            final V value = values.get(key);
+            if (value != null) {
+                snapshot.put(key, value);
+            }
+        }
+
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    private static final class Entry {
+        private final @NotNull CompiledTemplate template;
+        private final @NotNull Bindings bindings;
+
+        private Entry(@NotNull CompiledTemplate template) {
+            this.template = template;
+            this.bindings = template.getLayout().bindings();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.metrics.Instrumentation;
+import me.devgabi.configstrings.optimizer.Optimizer;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiles expressions into {@link CompiledTemplate}s, resolving the operator
+ * switches, literal wrapping, type dispatch and variable slots once instead of in
+ * every evaluation
+ */
+public final class TemplateCompiler {
+    /**
+     * The default number of evaluations before a template is promoted
+     * to the method handle tier
+     */
+    public static final int DEFAULT_PROMOTION_THRESHOLD = 1000;
+
+    private final int promotionThreshold;
+    private final @NotNull Map<String, ConfigValue> registry;
+
+    public TemplateCompiler() {
+        this(DEFAULT_PROMOTION_THRESHOLD);
+    }
+
+    /**
+     * Creates a compiler whose templates are promoted to the method handle
+     * tier after the given number of evaluations
+     *
+     * @param promotionThreshold the evaluations before promoting, zero to promote
+     *                           in the first evaluation and negative to never promote
+     */
+    public TemplateCompiler(final int promotionThreshold) {
+        this(promotionThreshold, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a compiler that links the calls of the registry functions, the call
+     * sites are bound to the function when compiling, and no longer look it up in
+     * the environment. The other calls are still resolved in every evaluation
+     *
+     * @param promotionThreshold the evaluations before promoting
+     * @param registry           the functions to link, like {@link me.devgabi.configstrings.ConfigStrings#builtin()}
+     * @throws LinkException if a call to a registry function has too few arguments
+     */
+    public TemplateCompiler(final int promotionThreshold, final @NotNull Map<String, ConfigValue> registry) {
+        this.promotionThreshold = promotionThreshold;
+        this.registry = Collections.unmodifiableMap(new HashMap<>(registry));
+    }
+
+    /**
+     * Optimizes, links and compiles the expression
+     *
+     * @param expr the target expression
+     * @return the compiled template
+     * @throws LinkException if a call to a registry function has too few arguments
+     */
+    public @NotNull CompiledTemplate compile(final @NotNull Expr expr) {
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return link(expr);
+        }
+
+        final long start = System.nanoTime();
+        final CompiledTemplate template;
+        try {
+            template = link(expr);
+        } catch (final RuntimeException e) {
+            listener.compiled(expr, null, System.nanoTime() - start, e);
+            throw e;
+        }
+
+        listener.compiled(expr, template, System.nanoTime() - start, null);
+
+        return template;
+    }
+
+    public int getPromotionThreshold() {
+        return promotionThreshold;
+    }
+
+    public @NotNull Map<String, ConfigValue> getRegistry() {
+        return registry;
+    }
+
+    private @NotNull CompiledTemplate link(final @NotNull Expr expr) {
+        Expr optimized = new Optimizer(expr).optimize();
+        if (!registry.isEmpty()) {
+            final Linker linker = new Linker(registry);
+            optimized = linker.visit(optimized);
+
+            // folds the calls of pure functions that are now linked
+            if (linker.getLinkedCalls() > 0) {
+                optimized = new Optimizer(optimized).optimize();
+            }
+        }
+
+        final SlotLayout layout = SlotLayout.of(optimized);
+
+        return new CompiledTemplate(optimized, layout, optimized.accept(new NodeCompiler(layout)), promotionThreshold);
+    }
+}
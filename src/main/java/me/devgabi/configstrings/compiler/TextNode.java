@@ -0,0 +1,46 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.value.ConfigString;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * A text with interpolations, that appends its segments straight
+ * into the output when nested in other texts
+ */
+final class TextNode implements Node {
+    private final @NotNull String prefix;
+    private final @NotNull Node[] interpolation;
+    private final int estimate;
+
+    TextNode(@NotNull String prefix, @NotNull Node[] interpolation, int estimate) {
+        this.prefix = prefix;
+        this.interpolation = interpolation;
+        this.estimate = estimate;
+    }
+
+    @Override
+    public @NotNull ConfigValue evaluate(final @NotNull Bindings bindings) {
+        final StringBuilder builder = new StringBuilder(estimate);
+        try {
+            appendTo(bindings, builder);
+        } catch (final IOException e) {
+            throw new AssertionError(e); // StringBuilder never throws
+        }
+
+        return ConfigString.of(builder.toString());
+    }
+
+    @Override
+    public void appendTo(
+            final @NotNull Bindings bindings,
+            final @NotNull Appendable output
+    ) throws IOException {
+        output.append(prefix);
+        for (final Node element : interpolation) {
+            element.appendTo(bindings, output);
+        }
+    }
+}
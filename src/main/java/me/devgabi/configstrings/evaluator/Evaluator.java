@@ -2,22 +2,35 @@ package me.devgabi.configstrings.evaluator;
 
 import me.devgabi.configstrings.grammar.Expr;
 import me.devgabi.configstrings.grammar.TokenType;
-import com.lorenzoog.configstrings.value.*;
 import me.devgabi.configstrings.value.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 public final class Evaluator implements Expr.Visitor<ConfigValue> {
     private final Map<String, ConfigValue> environment;
 
+    // wraps every visit, like the timing of the ProfilingEvaluator, that calls back into evaluate
+    private final Function<Expr, ConfigValue> hook;
+
     public Evaluator(Map<String, ConfigValue> environment) {
+        this(environment, null);
+    }
+
+    Evaluator(Map<String, ConfigValue> environment, Function<Expr, ConfigValue> hook) {
         this.environment = environment;
+        this.hook = hook;
     }
 
     @Override
     public ConfigValue visit(Expr expr) {
+        if (hook != null) {
+            return hook.apply(expr);
+        }
+
+        // the same as evaluate, inlined so a visit without a hook takes a single frame per node
         try {
             return expr.accept(this);
         } catch (final RuntimeException e) {
@@ -25,6 +38,48 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
         }
     }
 
+    ConfigValue evaluate(final Expr expr) {
+        try {
+            return expr.accept(this);
+        } catch (final RuntimeException e) {
+            throw new EvalException(e);
+        }
+    }
+
+    /**
+     * Evaluates the expression straight into the output, the literal segments and
+     * interpolations of texts are appended without building intermediate strings
+     *
+     * @param expr   the target expression
+     * @param output the output
+     */
+    public void evaluateTo(final Expr expr, final Appendable output) {
+        try {
+            appendTo(expr, output);
+        } catch (final IOException e) {
+            throw new EvalException(e);
+        }
+    }
+
+    private void appendTo(final Expr expr, final Appendable output) throws IOException {
+        // the texts are visited when hooked, so every node goes through the hook
+        if (!(expr instanceof Expr.Text) || hook != null) {
+            output.append(visit(expr).toString());
+            return;
+        }
+
+        final Expr.Text text = (Expr.Text) expr;
+        final Object lhs = text.getLhs().getLiteral();
+        if (lhs == null) {
+            throw new EvalException("LHS is null");
+        }
+
+        output.append(lhs.toString());
+        for (final Expr element : text.getInterpolation()) {
+            appendTo(element, output);
+        }
+    }
+
     @Override
     public ConfigValue visitConstExpr(final Expr.Const expr) {
         return ConfigValue.of(expr.getLiteral());
@@ -56,7 +111,7 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
                 }
                 final ConfigNumeric numeric = (ConfigNumeric) rhs;
 
-                return ConfigNumeric.of(-numeric.unwrap());
+                return numeric.negate();
             }
         }
 
@@ -66,6 +121,9 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
     @Override
     public ConfigValue visitLogicalExpr(final Expr.Logical expr) {
         final TokenType op = expr.getOp().getType();
+        if (expr.acceptBool()) {
+            return visitShortCircuit(expr, op);
+        }
 
         final ConfigValue lhsValue = visit(expr.getLhs());
         final ConfigValue rhsValue = visit(expr.getRhs());
@@ -78,25 +136,6 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
                 case BANG_EQUALS:
                     return ConfigBool.of(!lhsValue.equals(rhsValue));
             }
-        } else if (expr.acceptBool()) {
-            if (!(lhsValue instanceof ConfigBool)) {
-                throw new TypeException(ConfigBool.TYPE_NAME, lhsValue.getTypeName());
-            }
-
-            if (!(rhsValue instanceof ConfigBool)) {
-                throw new TypeException(ConfigBool.TYPE_NAME, rhsValue.getTypeName());
-            }
-
-            final ConfigBool lhs = (ConfigBool) lhsValue;
-            final ConfigBool rhs = (ConfigBool) rhsValue;
-
-            switch (op) {
-                case AND:
-                    return ConfigBool.of(lhs.unwrap() && rhs.unwrap());
-
-                case OR:
-                    return ConfigBool.of(lhs.unwrap() || rhs.unwrap());
-            }
         } else if (expr.acceptNumeric()) {
             if (!(lhsValue instanceof ConfigNumeric)) {
                 throw new TypeException(ConfigNumeric.TYPE_NAME, lhsValue.getTypeName());
@@ -111,16 +150,16 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
 
             switch (op) {
                 case GREATER_EQUALS:
-                    return ConfigBool.of(lhs.unwrap() >= rhs.unwrap());
+                    return ConfigBool.of(lhs.greaterEquals(rhs));
 
                 case GREATER:
-                    return ConfigBool.of(lhs.unwrap() > rhs.unwrap());
+                    return ConfigBool.of(lhs.greater(rhs));
 
                 case LESS:
-                    return ConfigBool.of(lhs.unwrap() < rhs.unwrap());
+                    return ConfigBool.of(lhs.less(rhs));
 
                 case LESS_EQUALS:
-                    return ConfigBool.of(lhs.unwrap() <= rhs.unwrap());
+                    return ConfigBool.of(lhs.lessEquals(rhs));
             }
         }
 
@@ -128,20 +167,56 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
         throw new EvalException("Unsupported logical operation " + op);
     }
 
+    /**
+     * Evaluates the {@code &&} and {@code ||} operators, the rhs is only
+     * evaluated when the lhs does not decide the result
+     *
+     * @param expr the logical expression
+     * @param op   the operator
+     * @return the result
+     */
+    private ConfigValue visitShortCircuit(final Expr.Logical expr, final TokenType op) {
+        final ConfigValue lhsValue = visit(expr.getLhs());
+        if (!(lhsValue instanceof ConfigBool)) {
+            throw new TypeException(ConfigBool.TYPE_NAME, lhsValue.getTypeName());
+        }
+
+        final boolean lhs = ((ConfigBool) lhsValue).unwrap();
+        switch (op) {
+            case AND:
+                if (!lhs) return ConfigBool.FALSE;
+                break;
+
+            case OR:
+                if (lhs) return ConfigBool.TRUE;
+                break;
+
+            default:
+                throw new EvalException("Unsupported logical operation " + op);
+        }
+
+        final ConfigValue rhsValue = visit(expr.getRhs());
+        if (!(rhsValue instanceof ConfigBool)) {
+            throw new TypeException(ConfigBool.TYPE_NAME, rhsValue.getTypeName());
+        }
+
+        return rhsValue;
+    }
+
     @Override
     public ConfigValue visitBinaryExpr(final Expr.Binary expr) {
         final TokenType op = expr.getOp().getType();
 
         final ConfigValue rhsValue = visit(expr.getRhs());
-        if (!(rhsValue instanceof ConfigNumeric)) {
-            throw new TypeException(ConfigNumeric.TYPE_NAME, rhsValue.getTypeName());
-        }
-
         final ConfigValue lhsValue = visit(expr.getLhs());
         if (lhsValue instanceof ConfigString && op == TokenType.PLUS) {
             return ConfigString.of(((ConfigString) lhsValue).unwrap() + rhsValue.toString());
         }
 
+        if (!(rhsValue instanceof ConfigNumeric)) {
+            throw new TypeException(ConfigNumeric.TYPE_NAME, rhsValue.getTypeName());
+        }
+
         if (!(lhsValue instanceof ConfigNumeric)) {
             throw new TypeException(ConfigNumeric.TYPE_NAME, lhsValue.getTypeName());
         }
@@ -151,16 +226,16 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
 
         switch (op) {
             case MINUS:
-                return ConfigNumeric.of(lhs.unwrap() - rhs.unwrap());
+                return lhs.minus(rhs);
 
             case STAR:
-                return ConfigNumeric.of(lhs.unwrap() * rhs.unwrap());
+                return lhs.times(rhs);
 
             case SLASH:
-                return ConfigNumeric.of(lhs.unwrap() / rhs.unwrap());
+                return lhs.div(rhs);
 
             case PLUS:
-                return ConfigNumeric.of(lhs.unwrap() + rhs.unwrap());
+                return lhs.plus(rhs);
 
             default:
                 break;
@@ -191,15 +266,37 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
             throw new TypeException(ConfigFunction.TYPE_NAME, value.getTypeName());
         }
         final ConfigFunction function = (ConfigFunction) value;
-        final List<ConfigValue> arguments = expr.getArguments().stream()
-                .map(this::visit)
-                .collect(Collectors.toList());
+        final List<Expr> arguments = expr.getArguments();
 
-        if (function.arity() > arguments.size()) {
-            throw new EvalException("Incorrect function arity");
-        }
+        switch (arguments.size()) {
+            case 0:
+                return function.invoke();
+
+            case 1:
+                return function.invoke(visit(arguments.get(0)));
+
+            case 2: {
+                final ConfigValue first = visit(arguments.get(0));
 
-        return function.invoke(arguments);
+                return function.invoke(first, visit(arguments.get(1)));
+            }
+
+            case 3: {
+                final ConfigValue first = visit(arguments.get(0));
+                final ConfigValue second = visit(arguments.get(1));
+
+                return function.invoke(first, second, visit(arguments.get(2)));
+            }
+
+            default: {
+                final ConfigValue[] values = new ConfigValue[arguments.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = visit(arguments.get(i));
+                }
+
+                return function.invoke(values);
+            }
+        }
     }
 
     @Override
@@ -236,7 +333,8 @@ public final class Evaluator implements Expr.Visitor<ConfigValue> {
             throw new EvalException("LHS is null");
         }
 
-        final StringBuilder builder = new StringBuilder(lhs.toString());
+        final StringBuilder builder = new StringBuilder(text.estimateLength());
+        builder.append(lhs.toString());
         for (final Expr element : text.getInterpolation()) {
             builder.append(visit(element).toString());
         }
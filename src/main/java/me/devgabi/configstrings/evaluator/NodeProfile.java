@@ -0,0 +1,51 @@
+package me.devgabi.configstrings.evaluator;
+
+/**
+ * The visits and time of a expression node, recorded by a {@link ProfilingEvaluator}
+ */
+public final class NodeProfile {
+    private long visits;
+    private long totalNanos;
+    private long selfNanos;
+
+    NodeProfile() {
+    }
+
+    void record(final long nanos, final long childNanos) {
+        visits++;
+        totalNanos += nanos;
+        selfNanos += nanos - childNanos;
+    }
+
+    public long getVisits() {
+        return visits;
+    }
+
+    /**
+     * Returns the cumulative time in the node, including its children
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the time in the node itself, excluding its children. For a call it is
+     * the time in the callee, after the callee and the arguments were evaluated
+     *
+     * @return the time in nanoseconds
+     */
+    public long getSelfNanos() {
+        return selfNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeProfile{" +
+                "visits=" + visits +
+                ", totalNanos=" + totalNanos +
+                ", selfNanos=" + selfNanos +
+                '}';
+    }
+}
@@ -0,0 +1,243 @@
+package me.devgabi.configstrings.evaluator;
+
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.grammar.Token;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A evaluator that counts the visits of each expression node and records the time
+ * spent in it, including and excluding its children, across its evaluations. The
+ * profiles can be dumped as the expression tree annotated with the source position,
+ * visits and time of each node, to find the slow subexpressions of a template.
+ * <p>
+ * Like the {@link Evaluator}, it must not be shared between threads.
+ */
+public final class ProfilingEvaluator {
+    private final @NotNull Evaluator evaluator;
+    private final @NotNull Map<Expr, NodeProfile> profiles;
+
+    // the time of the children of the node being visited
+    private long childNanos;
+
+    public ProfilingEvaluator(final Map<String, ConfigValue> environment) {
+        this.evaluator = new Evaluator(environment, this::profile);
+        this.profiles = new IdentityHashMap<>();
+    }
+
+    /**
+     * Evaluates the expression, recording the visits and time of its nodes
+     *
+     * @param expr the target expression
+     * @return the evaluated value
+     * @see Evaluator#visit(Expr)
+     */
+    public ConfigValue visit(final Expr expr) {
+        return evaluator.visit(expr);
+    }
+
+    /**
+     * Evaluates the expression into the output, recording the visits and time of
+     * its nodes, the texts included
+     *
+     * @param expr   the target expression
+     * @param output the output
+     * @see Evaluator#evaluateTo(Expr, Appendable)
+     */
+    public void evaluateTo(final Expr expr, final Appendable output) {
+        evaluator.evaluateTo(expr, output);
+    }
+
+    private ConfigValue profile(final Expr expr) {
+        NodeProfile profile = profiles.get(expr);
+        if (profile == null) {
+            profile = new NodeProfile();
+            profiles.put(expr, profile);
+        }
+
+        final long parentChildNanos = childNanos;
+        childNanos = 0;
+
+        final long start = System.nanoTime();
+        try {
+            return evaluator.evaluate(expr);
+        } finally {
+            final long nanos = System.nanoTime() - start;
+
+            profile.record(nanos, childNanos);
+            childNanos = parentChildNanos + nanos;
+        }
+    }
+
+    /**
+     * Returns the profile of a node
+     *
+     * @param expr the node
+     * @return the profile, or null if the node was not visited
+     */
+    public @Nullable NodeProfile getProfile(final @NotNull Expr expr) {
+        return profiles.get(expr);
+    }
+
+    /**
+     * Returns the profiles of the visited nodes, by node identity
+     *
+     * @return the profiles
+     */
+    public @NotNull Map<Expr, NodeProfile> getProfiles() {
+        return Collections.unmodifiableMap(profiles);
+    }
+
+    public void reset() {
+        profiles.clear();
+    }
+
+    /**
+     * Dumps the expression tree, each node in a line with its source position, visits,
+     * cumulative and self time, and the share of the root time, like:
+     * <pre>
+     * Binary PLUS @7  visits=1000 total=812.4us (100.0%) self=40.1us
+     *   Call @0  visits=1000 total=760.2us (93.6%) callee=702.9us
+     *     Var upper @0  visits=1000 total=20.3us (2.5%) self=20.3us
+     * </pre>
+     *
+     * @param root the evaluated expression
+     * @return the annotated tree
+     */
+    public @NotNull String dump(final @NotNull Expr root) {
+        final NodeProfile rootProfile = profiles.get(root);
+        final Printer printer = new Printer(profiles, rootProfile == null ? 0 : rootProfile.getTotalNanos());
+        printer.visit(root);
+
+        return printer.builder.toString();
+    }
+
+    private static final class Printer implements Expr.Visitor<Void> {
+        private final @NotNull Map<Expr, NodeProfile> profiles;
+        private final long rootNanos;
+        private final @NotNull StringBuilder builder = new StringBuilder();
+        private int depth;
+
+        private Printer(@NotNull Map<Expr, NodeProfile> profiles, long rootNanos) {
+            this.profiles = profiles;
+            this.rootNanos = rootNanos;
+        }
+
+        @Override
+        public Void visitConstExpr(final Expr.Const expr) {
+            return line(expr, "Const " + expr.getLiteral(), null);
+        }
+
+        @Override
+        public Void visitGroupExpr(final Expr.Group expr) {
+            line(expr, "Group", null);
+            return children(expr.getExpr());
+        }
+
+        @Override
+        public Void visitUnaryExpr(final Expr.Unary expr) {
+            line(expr, "Unary " + expr.getOp().getType(), expr.getOp());
+            return children(expr.getRhs());
+        }
+
+        @Override
+        public Void visitLogicalExpr(final Expr.Logical expr) {
+            line(expr, "Logical " + expr.getOp().getType(), expr.getOp());
+            return children(expr.getLhs(), expr.getRhs());
+        }
+
+        @Override
+        public Void visitBinaryExpr(final Expr.Binary expr) {
+            line(expr, "Binary " + expr.getOp().getType(), expr.getOp());
+            return children(expr.getLhs(), expr.getRhs());
+        }
+
+        @Override
+        public Void visitVarExpr(final Expr.Var expr) {
+            return line(expr, "Var " + expr.getName().getLiteral(), expr.getName());
+        }
+
+        @Override
+        public Void visitCallExpr(final Expr.Call expr) {
+            final Expr callee = expr.getCallee();
+            line(expr, "Call", callee instanceof Expr.Var ? ((Expr.Var) callee).getName() : null);
+
+            depth++;
+            visit(callee);
+            for (final Expr argument : expr.getArguments()) {
+                visit(argument);
+            }
+            depth--;
+
+            return null;
+        }
+
+        @Override
+        public Void visitGetExpr(final Expr.Get expr) {
+            line(expr, "Get " + expr.getMember().getLiteral(), expr.getMember());
+            return children(expr.getReceiver());
+        }
+
+        @Override
+        public Void visitElvisExpr(final Expr.Elvis expr) {
+            line(expr, "Elvis", null);
+            return children(expr.getLhs(), expr.getRhs());
+        }
+
+        @Override
+        public Void visitTextExpr(final Expr.Text text) {
+            line(text, "Text \"" + text.getLhs().getLiteral() + "\"", text.getLhs());
+
+            depth++;
+            for (final Expr element : text.getInterpolation()) {
+                visit(element);
+            }
+            depth--;
+
+            return null;
+        }
+
+        private Void children(final @NotNull Expr... children) {
+            depth++;
+            for (final Expr child : children) {
+                visit(child);
+            }
+            depth--;
+
+            return null;
+        }
+
+        private Void line(final @NotNull Expr expr, final @NotNull String label, final @Nullable Token token) {
+            for (int i = 0; i < depth; i++) {
+                builder.append("  ");
+            }
+
+            builder.append(label);
+            if (token != null) {
+                builder.append(" @").append(token.getPosition());
+            }
+
+            final NodeProfile profile = profiles.get(expr);
+            if (profile == null) {
+                builder.append("  not visited\n");
+                return null;
+            }
+
+            builder.append(String.format(
+                    "  visits=%d total=%.1fus (%.1f%%) %s=%.1fus\n",
+                    profile.getVisits(),
+                    profile.getTotalNanos() / 1e3,
+                    rootNanos == 0 ? 0 : profile.getTotalNanos() * 100.0 / rootNanos,
+                    expr instanceof Expr.Call ? "callee" : "self",
+                    profile.getSelfNanos() / 1e3
+            ));
+
+            return null;
+        }
+    }
+}
@@ -339,6 +339,8 @@ public abstract class Expr {
     }
 
     public static final class Text extends Expr {
+        private static final int INTERPOLATION_LENGTH_ESTIMATE = 16;
+
         private final @NotNull Token lhs;
         private final @NotNull List<Expr> interpolation;
 
@@ -364,5 +366,17 @@ public abstract class Expr {
         public @NotNull List<Expr> getInterpolation() {
             return interpolation;
         }
+
+        /**
+         * Estimates the length of the evaluated text, to presize the output buffers
+         *
+         * @return the estimated length
+         */
+        public int estimateLength() {
+            final Object literal = lhs.getLiteral();
+            final int length = literal == null ? 0 : literal.toString().length();
+
+            return length + interpolation.size() * INTERPOLATION_LENGTH_ESTIMATE;
+        }
     }
 }
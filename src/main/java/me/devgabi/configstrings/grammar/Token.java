@@ -42,7 +42,10 @@ public final class Token {
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, position, literal);
+        int result = type.hashCode();
+        result = 31 * result + position;
+        result = 31 * result + Objects.hashCode(literal);
+        return result;
     }
 
     @Override
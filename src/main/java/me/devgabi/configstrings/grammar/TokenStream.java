@@ -0,0 +1,16 @@
+package me.devgabi.configstrings.grammar;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A source of tokens that are pulled on demand
+ */
+@FunctionalInterface
+public interface TokenStream {
+    /**
+     * Returns the next token, after the end it keeps returning {@link TokenType#EOF}
+     *
+     * @return the next token
+     */
+    @NotNull Token next();
+}
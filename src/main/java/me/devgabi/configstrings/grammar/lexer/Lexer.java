@@ -1,57 +1,162 @@
 package me.devgabi.configstrings.grammar.lexer;
 
 import me.devgabi.configstrings.grammar.Token;
+import me.devgabi.configstrings.grammar.TokenStream;
 import me.devgabi.configstrings.grammar.TokenType;
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.metrics.Instrumentation;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
-public final class Lexer {
-    private static final Map<String, TokenType> KEYWORDS = new HashMap<>();
+/**
+ * Lexes the input into tokens, either all at once with {@link #lex()},
+ * into a reusable packed {@link TokenBuffer} with {@link #lexInto(TokenBuffer)},
+ * or pulling one token at a time with {@link #next()}. Strings and
+ * interpolations are tracked in a mode stack, so pulling a token only
+ * lexes as much input as that token needs.
+ */
+public final class Lexer implements TokenStream {
+    private static final char INTERPOLATION_MODE = '{';
 
-    static {
-        KEYWORDS.put("true", TokenType.TRUE);
-        KEYWORDS.put("false", TokenType.FALSE);
-        KEYWORDS.put("null", TokenType.NULL);
-    }
+    private static final String[] KEYWORDS = {"true", "false", "null"};
+    private static final TokenType[] KEYWORD_TYPES = {TokenType.TRUE, TokenType.FALSE, TokenType.NULL};
 
     private final @NotNull String input;
-    private final @NotNull List<Token> tokens;
+    private final @NotNull TokenBuffer pending;
+    private @NotNull TokenBuffer sink;
+    private int head;
+    private boolean finished;
     private final @NotNull List<LexViolation> violations;
     private final boolean flexible;
     private int index;
     private int start;
 
+    // the quote of each open string, or INTERPOLATION_MODE for each open interpolation
+    private char[] modes;
+    private int depth;
+
     public Lexer(@NotNull String input, boolean flexible) {
         this.input = input;
-        this.tokens = new ArrayList<>();
+        this.pending = new TokenBuffer(4);
+        this.pending.reset(input);
+        this.sink = pending;
         this.flexible = flexible;
         this.violations = new ArrayList<>();
+        this.modes = new char[8];
     }
 
     public @NotNull List<Token> lex() {
-        while (!isAtEnd()) {
-            start = index;
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return lexTokens();
+        }
 
-            lexToken();
+        final long start = System.nanoTime();
+        final List<Token> tokens;
+        try {
+            tokens = lexTokens();
+        } catch (final RuntimeException e) {
+            listener.lexed(input, -1, System.nanoTime() - start, e);
+            throw e;
         }
 
-        addToken(TokenType.EOF);
+        listener.lexed(input, tokens.size(), System.nanoTime() - start, null);
 
-        if (!flexible) {
-            throw new LexException(violations);
+        return tokens;
+    }
+
+    /**
+     * Lexes the whole input into the buffer, without allocating objects per token
+     *
+     * @param buffer the target buffer, that is cleared before lexing
+     * @return the buffer
+     */
+    public @NotNull TokenBuffer lexInto(final @NotNull TokenBuffer buffer) {
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return lexBuffer(buffer);
         }
 
+        final long start = System.nanoTime();
+        try {
+            lexBuffer(buffer);
+        } catch (final RuntimeException e) {
+            listener.lexed(input, -1, System.nanoTime() - start, e);
+            throw e;
+        }
+
+        listener.lexed(input, buffer.size(), System.nanoTime() - start, null);
+
+        return buffer;
+    }
+
+    private @NotNull List<Token> lexTokens() {
+        final List<Token> tokens = new ArrayList<>();
+
+        Token token;
+        do {
+            token = next();
+            tokens.add(token);
+        } while (token.getType() != TokenType.EOF);
+
         return tokens;
     }
 
+    private @NotNull TokenBuffer lexBuffer(final @NotNull TokenBuffer buffer) {
+        buffer.reset(input);
+        sink = buffer;
+
+        try {
+            while (!finished) {
+                step();
+            }
+        } finally {
+            sink = pending;
+        }
+
+        return buffer;
+    }
+
+    @Override
+    public @NotNull Token next() {
+        while (head == pending.size()) {
+            pending.clear();
+            head = 0;
+            step();
+        }
+
+        return pending.token(head++);
+    }
+
     public List<LexViolation> getViolations() {
         return violations;
     }
 
+    private void step() {
+        if (depth == 0) {
+            if (isAtEnd()) {
+                addToken(TokenType.EOF);
+                finished = true;
+
+                if (!flexible) {
+                    throw new LexException(violations);
+                }
+
+                return;
+            }
+
+            start = index;
+            lexToken();
+        } else if (modes[depth - 1] == INTERPOLATION_MODE) {
+            stepInterpolation();
+        } else {
+            stepString(modes[depth - 1]);
+        }
+    }
+
     private void lexToken() {
         final char c = advance();
 
@@ -146,12 +251,9 @@ public final class Lexer {
                 break;
 
             case '"':
-                lexString();
-
-                break;
-
             case '\'':
-                lexSimpleString();
+                start++;
+                pushMode(c);
 
                 break;
 
@@ -172,56 +274,48 @@ public final class Lexer {
         }
     }
 
-    private void lexInterpolation() {
-        while (true) {
-            if (peek() != '}' && peekNext() != '}') {
-                lexToken();
-            } else {
-                addToken(TokenType.INTERPOLATION_END);
-                advance();
-                advance();
-                break;
-            }
+    private void stepInterpolation() {
+        if (peek() != '}' || peekNext() != '}') {
+            start = index;
+            lexToken();
+        } else {
+            addToken(TokenType.INTERPOLATION_END);
+            advance();
+            advance();
+            popMode();
+
+            start = index;
         }
     }
 
-    private void lexString() {
-        start++;
-        while (!isAtEnd() && peek() != '"') {
-            index++;
-
+    private void stepString(final char quote) {
+        if (!isAtEnd() && peek() != quote) {
             if (matchInterpolationStart()) {
-                addToken(TokenType.STRING, input.substring(start, index - 2));
+                addToken(TokenType.STRING, start, index - 2);
                 start = index;
                 addToken(TokenType.INTERPOLATION_START);
-                lexInterpolation();
-                start = index;
+                pushMode(INTERPOLATION_MODE);
+            } else {
+                index++;
             }
+        } else {
+            advance(); // jump the quote
+            addToken(TokenType.STRING, start, index - 1);
+            addToken(TokenType.STRING_END);
+            popMode();
         }
-
-        advance(); // jump "
-        addToken(TokenType.STRING, input.substring(start + 1, index - 1));
-        addToken(TokenType.STRING_END);
     }
 
-    private void lexSimpleString() {
-        start++;
-        while (!isAtEnd() && peek() != '\'') {
-            index++;
-
-            if (matchInterpolationStart()) {
-                addToken(TokenType.STRING, input.substring(start, index - 2));
-                start = index;
-                addToken(TokenType.INTERPOLATION_START);
-                lexInterpolation();
-                start = index;
-            }
+    private void pushMode(final char mode) {
+        if (depth == modes.length) {
+            modes = Arrays.copyOf(modes, depth * 2);
         }
 
-        advance(); // jump '
+        modes[depth++] = mode;
+    }
 
-        addToken(TokenType.STRING, input.substring(start + 1, index - 1));
-        addToken(TokenType.STRING_END);
+    private void popMode() {
+        depth--;
     }
 
     private void lexIdentifier() {
@@ -229,9 +323,7 @@ public final class Lexer {
             index++;
         }
 
-        final String identifier = input.substring(start, index);
-
-        addToken(KEYWORDS.getOrDefault(identifier, TokenType.IDENTIFIER), identifier);
+        addToken(keyword(start, index), start, index);
     }
 
     private void lexNumeric() {
@@ -245,9 +337,19 @@ public final class Lexer {
             }
         }
 
-        final String numeric = input.substring(start, index);
+        addToken(TokenType.NUMERIC, start, index);
+    }
+
+    private TokenType keyword(final int from, final int to) {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            final String keyword = KEYWORDS[i];
+
+            if (to - from == keyword.length() && input.regionMatches(from, keyword, 0, keyword.length())) {
+                return KEYWORD_TYPES[i];
+            }
+        }
 
-        addToken(TokenType.NUMERIC, Double.parseDouble(numeric));
+        return TokenType.IDENTIFIER;
     }
 
     private boolean matchInterpolationStart() {
@@ -293,11 +395,11 @@ public final class Lexer {
     }
 
     private void addToken(TokenType type) {
-        tokens.add(new Token(type, index, null));
+        sink.add(type, index, -1, -1);
     }
 
-    private void addToken(TokenType type, Object literal) {
-        tokens.add(new Token(type, index, literal));
+    private void addToken(TokenType type, int literalStart, int literalEnd) {
+        sink.add(type, index, literalStart, literalEnd);
     }
 
     private boolean isAtEnd() {
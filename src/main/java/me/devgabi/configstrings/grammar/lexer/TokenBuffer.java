@@ -0,0 +1,138 @@
+package me.devgabi.configstrings.grammar.lexer;
+
+import me.devgabi.configstrings.grammar.Token;
+import me.devgabi.configstrings.grammar.TokenStream;
+import me.devgabi.configstrings.grammar.TokenType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Tokens packed in a primitive array, each token is its type, position and
+ * the offsets of its literal in the source. The literals are only decoded
+ * from the source when requested, and the buffer can be reused between inputs.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int STRIDE = 4;
+    private static final int TYPE = 0;
+    private static final int POSITION = 1;
+    private static final int LITERAL_START = 2;
+    private static final int LITERAL_END = 3;
+
+    private @NotNull String source;
+    private int[] data;
+    private int size;
+
+    public TokenBuffer() {
+        this(64);
+    }
+
+    public TokenBuffer(int capacity) {
+        this.source = "";
+        this.data = new int[Math.max(capacity, 1) * STRIDE];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public @NotNull TokenType type(final int index) {
+        return TYPES[data[checkIndex(index) * STRIDE + TYPE]];
+    }
+
+    public int position(final int index) {
+        return data[checkIndex(index) * STRIDE + POSITION];
+    }
+
+    /**
+     * Decodes the literal of the token from the source
+     *
+     * @param index the token index
+     * @return the literal, or null if the token has none
+     */
+    public @Nullable Object literal(final int index) {
+        final int offset = checkIndex(index) * STRIDE;
+        final int start = data[offset + LITERAL_START];
+        if (start < 0) {
+            return null;
+        }
+
+        final String literal = source.substring(start, data[offset + LITERAL_END]);
+        if (TYPES[data[offset + TYPE]] == TokenType.NUMERIC) {
+            return parseNumeric(literal);
+        }
+
+        return literal;
+    }
+
+    private static @NotNull Object parseNumeric(final @NotNull String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (!Character.isDigit(literal.charAt(i))) {
+                return Double.parseDouble(literal);
+            }
+        }
+
+        try {
+            return Long.parseLong(literal);
+        } catch (final NumberFormatException e) {
+            return Double.parseDouble(literal); // too large for a long
+        }
+    }
+
+    public @NotNull Token token(final int index) {
+        return new Token(type(index), position(index), literal(index));
+    }
+
+    /**
+     * Returns a stream over the tokens of this buffer, materializing each token when pulled
+     *
+     * @return the token stream
+     */
+    public @NotNull TokenStream stream() {
+        return new TokenStream() {
+            private int index;
+
+            @Override
+            public @NotNull Token next() {
+                final Token token = token(index);
+                if (index < size - 1) {
+                    index++;
+                }
+
+                return token;
+            }
+        };
+    }
+
+    void reset(final @NotNull String source) {
+        this.source = source;
+        this.size = 0;
+    }
+
+    void add(final @NotNull TokenType type, final int position, final int literalStart, final int literalEnd) {
+        final int offset = size * STRIDE;
+        if (offset == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+
+        data[offset + TYPE] = type.ordinal();
+        data[offset + POSITION] = position;
+        data[offset + LITERAL_START] = literalStart;
+        data[offset + LITERAL_END] = literalEnd;
+        size++;
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+
+        return index;
+    }
+}
@@ -2,30 +2,63 @@ package me.devgabi.configstrings.grammar.parser;
 
 import me.devgabi.configstrings.grammar.Expr;
 import me.devgabi.configstrings.grammar.Token;
+import me.devgabi.configstrings.grammar.TokenStream;
 import me.devgabi.configstrings.grammar.TokenType;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Parses the tokens into a expression, it only keeps the current and the
+ * previous token, so parsing from a {@link me.devgabi.configstrings.grammar.lexer.Lexer}
+ * stream lexes and parses in a single pass without materializing the tokens.
+ * <p>
+ * The evaluator, the compiler and the optimizer walk the tree recursively, so
+ * expressions deeper than {@link #MAXIMUM_DEPTH} levels, like a long chain of
+ * sums or many nested groups, are rejected with a {@link ParseException}
+ * instead of overflowing the stack of a later pass.
+ */
 public final class Parser {
-    private final @NotNull List<Token> tokens;
+    /**
+     * The maximum depth of a parsed expression, the number of nodes in its longest path from the root
+     */
+    public static final int MAXIMUM_DEPTH = 256;
+
+    private final @NotNull TokenStream tokens;
     private final @NotNull List<ParseViolation> violations;
+    private @NotNull Token current;
+    private Token previous;
     private int index;
 
+    // the depth of the last parsed expression, and of the expressions being parsed around it
+    private int height;
+    private int nesting;
+
     public Parser(@NotNull List<Token> tokens) {
+        this(tokens.iterator()::next);
+    }
+
+    public Parser(@NotNull TokenStream tokens) {
         this.tokens = tokens;
         this.violations = new ArrayList<>();
+        this.current = tokens.next();
     }
 
     /**
-     * Parses expression
+     * Parses expression, and then reads the remaining tokens
      *
      * @return the parsed expr
      */
     @NotNull
     public Expr parse() {
-        return elvis();
+        final Expr expr = elvis();
+
+        while (!isAtEnd()) {
+            advance();
+        }
+
+        return expr;
     }
 
     public @NotNull List<ParseViolation> getViolations() {
@@ -33,62 +66,83 @@ public final class Parser {
     }
 
     private Expr expr() {
-        return elvis();
+        enter();
+        final Expr expr = elvis();
+        nesting--;
+
+        return expr;
     }
 
     private Expr elvis() {
         Expr lhs = or();
+        int lhsHeight = height;
 
         while (!isAtEnd() && match(TokenType.ELVIS)) {
             final Expr rhs = or();
 
             lhs = new Expr.Elvis(lhs, rhs);
+            lhsHeight = parent(lhsHeight, height);
         }
 
+        height = lhsHeight;
+
         return lhs;
     }
 
     private Expr or() {
         Expr lhs = and();
+        int lhsHeight = height;
 
         while (!isAtEnd() && match(TokenType.OR)) {
             final Token op = previous();
             final Expr rhs = and();
 
             lhs = new Expr.Logical(lhs, op, rhs);
+            lhsHeight = parent(lhsHeight, height);
         }
 
+        height = lhsHeight;
+
         return lhs;
     }
 
     private Expr and() {
         Expr lhs = equality();
+        int lhsHeight = height;
 
         while (!isAtEnd() && match(TokenType.AND)) {
             final Token op = previous();
             final Expr rhs = equality();
 
             lhs = new Expr.Logical(lhs, op, rhs);
+            lhsHeight = parent(lhsHeight, height);
         }
 
+        height = lhsHeight;
+
         return lhs;
     }
 
     private Expr equality() {
         Expr lhs = comparison();
+        int lhsHeight = height;
 
         while (!isAtEnd() && match(TokenType.EQUALS_EQUALS, TokenType.BANG_EQUALS)) {
             final Token op = previous();
             final Expr rhs = comparison();
 
             lhs = new Expr.Logical(lhs, op, rhs);
+            lhsHeight = parent(lhsHeight, height);
         }
 
+        height = lhsHeight;
+
         return lhs;
     }
 
     private Expr comparison() {
         Expr lhs = term();
+        int lhsHeight = height;
 
         while (
                 !isAtEnd() && match(TokenType.LESS, TokenType.LESS_EQUALS, TokenType.GREATER_EQUALS, TokenType.GREATER)
@@ -97,41 +151,56 @@ public final class Parser {
             final Expr rhs = term();
 
             lhs = new Expr.Logical(lhs, op, rhs);
+            lhsHeight = parent(lhsHeight, height);
         }
 
+        height = lhsHeight;
+
         return lhs;
     }
 
     private Expr term() {
         Expr lhs = factor();
+        int lhsHeight = height;
 
         while (!isAtEnd() && match(TokenType.PLUS, TokenType.MINUS)) {
             final Token op = previous();
             final Expr rhs = factor();
 
-            lhs = new Expr.Logical(lhs, op, rhs);
+            lhs = new Expr.Binary(lhs, op, rhs);
+            lhsHeight = parent(lhsHeight, height);
         }
 
+        height = lhsHeight;
+
         return lhs;
     }
 
     private Expr factor() {
         Expr lhs = unary();
+        int lhsHeight = height;
 
         while (!isAtEnd() && match(TokenType.STAR, TokenType.SLASH)) {
             final Token op = previous();
             final Expr rhs = unary();
 
             lhs = new Expr.Binary(lhs, op, rhs);
+            lhsHeight = parent(lhsHeight, height);
         }
 
+        height = lhsHeight;
+
         return lhs;
     }
 
     private Expr unary() {
         if (!isAtEnd() && match(TokenType.STAR, TokenType.SLASH)) {
             final Token op = previous();
+            enter();
             final Expr rhs = unary();
+            nesting--;
+
+            height = parent(height, 0);
 
             return new Expr.Unary(op, rhs);
         }
@@ -160,22 +229,29 @@ public final class Parser {
     private Expr finishGet(final Expr receiver) {
         final Token member = consume(TokenType.IDENTIFIER, "Expecting member name");
 
+        height = parent(height, 0);
+
         return new Expr.Get(receiver, member);
     }
 
     private Expr finishCall(final Expr callee) {
         final List<Expr> arguments = new ArrayList<>();
+        int childHeight = height;
 
         while (!check(TokenType.R_PAREN)) {
             arguments.add(expr());
+            childHeight = Math.max(childHeight, height);
         }
 
         consume(TokenType.R_PAREN, "Expecting final of call");
+        height = parent(childHeight, 0);
 
         return new Expr.Call(callee, arguments);
     }
 
     private Expr primary() {
+        height = 1;
+
         if (match(TokenType.NUMERIC)) {
             return new Expr.Const(previous().getLiteral());
         } else if (match(TokenType.STRING)) {
@@ -192,6 +268,7 @@ public final class Parser {
             final Expr group = new Expr.Group(expr());
 
             consume(TokenType.R_PAREN, "Expecting final of group");
+            height = parent(height, 0);
 
             return group;
         }
@@ -202,12 +279,14 @@ public final class Parser {
     private Expr string() {
         final Token lhs = previous();
         final List<Expr> interpolation = new ArrayList<>();
+        int childHeight = 1;
 
         while (!isAtEnd() && !check(TokenType.STRING_END)) {
             if (match(TokenType.STRING)) {
                 interpolation.add(new Expr.Text(previous()));
             } else if (match(TokenType.INTERPOLATION_START)) {
                 interpolation.add(expr());
+                childHeight = Math.max(childHeight, height);
 
                 consume(TokenType.INTERPOLATION_END, "Expecting end of interpolation");
             } else {
@@ -216,10 +295,41 @@ public final class Parser {
         }
 
         advance(); // jump string end
+        height = parent(childHeight, 0);
 
         return new Expr.Text(lhs, interpolation);
     }
 
+    /**
+     * Enters a nested expression, failing before the recursion gets deeper than the maximum depth
+     */
+    private void enter() {
+        if (++nesting > MAXIMUM_DEPTH) {
+            throw tooDeep();
+        }
+    }
+
+    /**
+     * Returns the depth of a node over its deepest child, failing when it is deeper than the maximum depth
+     */
+    private int parent(final int lhsHeight, final int rhsHeight) {
+        final int parentHeight = Math.max(lhsHeight, rhsHeight) + 1;
+        if (parentHeight > MAXIMUM_DEPTH) {
+            throw tooDeep();
+        }
+
+        return parentHeight;
+    }
+
+    private ParseException tooDeep() {
+        return new ParseException(
+                index,
+                TokenType.PRIMARY,
+                peek().getType(),
+                "Expression deeper than " + MAXIMUM_DEPTH + " levels in index " + index
+        );
+    }
+
     private boolean check(final TokenType type) {
         return peek().getType().equals(type);
     }
@@ -245,18 +355,20 @@ public final class Parser {
     }
 
     private Token peek() {
-        return tokens.get(index);
+        return current;
     }
 
     private Token previous() {
-        return tokens.get(index - 1);
+        return previous;
     }
 
     private Token advance() {
         if (!isAtEnd()) {
             index++;
+            previous = current;
+            current = tokens.next();
         }
-        return tokens.get(index - 1);
+        return previous;
     }
 
     private boolean isAtEnd() {
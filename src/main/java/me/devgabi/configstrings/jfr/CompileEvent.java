@@ -0,0 +1,11 @@
+package me.devgabi.configstrings.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("me.devgabi.configstrings.Compile")
+@Label("Template Compile")
+@Description("A template optimized, linked and compiled, the node count is of the optimized expression")
+final class CompileEvent extends TemplateEvent {
+}
@@ -0,0 +1,46 @@
+package me.devgabi.configstrings.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import me.devgabi.configstrings.evaluator.EvalException;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The fields of every config-strings event. The events are disabled by default
+ * and are enabled by name in the recording settings, like
+ * {@code me.devgabi.configstrings.Evaluate#enabled=true}
+ */
+@Category("Config Strings")
+@Enabled(false)
+@StackTrace(false)
+abstract class ConfigStringsEvent extends Event {
+    @Label("Elapsed")
+    @Description("The time of the step, the events are committed when it ends")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Error Type")
+    @Description("The class of the error, or null if it succeeded")
+    String errorType;
+
+    @Label("Error Message")
+    String errorMessage;
+
+    void setError(final @Nullable Throwable error) {
+        if (error == null) return;
+
+        // the evaluation errors wrap the cause, like a type error
+        Throwable cause = error;
+        while (cause instanceof EvalException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        errorType = cause.getClass().getName();
+        errorMessage = cause.getMessage();
+    }
+}
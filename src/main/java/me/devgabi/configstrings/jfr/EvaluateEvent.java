@@ -0,0 +1,13 @@
+package me.devgabi.configstrings.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("me.devgabi.configstrings.Evaluate")
+@Label("Template Evaluate")
+final class EvaluateEvent extends TemplateEvent {
+    @Label("Output Length")
+    @Description("The length of the output, or -1 if it was evaluated into a value or failed")
+    int outputLength;
+}
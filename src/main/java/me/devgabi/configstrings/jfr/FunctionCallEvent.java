@@ -0,0 +1,19 @@
+package me.devgabi.configstrings.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("me.devgabi.configstrings.FunctionCall")
+@Label("Function Call")
+final class FunctionCallEvent extends ConfigStringsEvent {
+    @Label("Function")
+    @Description("The function name, or null if it was not named")
+    String function;
+
+    @Label("Arity")
+    int arity;
+
+    @Label("Memoized")
+    boolean memoized;
+}
@@ -0,0 +1,147 @@
+package me.devgabi.configstrings.jfr;
+
+import me.devgabi.configstrings.cache.BoundedCache;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.optimizer.Optimizer;
+import me.devgabi.configstrings.value.ConfigFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Commits the evaluation events as JDK Flight Recorder events, so the rendering
+ * work of each template shows up in the recordings. Installed with
+ * {@link me.devgabi.configstrings.metrics.Instrumentation#install(EvaluationListener)},
+ * it commits nothing until the events are enabled in the recording:
+ * <pre>
+ * me.devgabi.configstrings.Lex#enabled=true
+ * me.devgabi.configstrings.Parse#enabled=true
+ * me.devgabi.configstrings.Compile#enabled=true
+ * me.devgabi.configstrings.Evaluate#enabled=true
+ * me.devgabi.configstrings.FunctionCall#enabled=true
+ * </pre>
+ * The events are committed when the step ends, so their duration is empty and the
+ * time of the step is in the elapsed field. The code of the templates is only kept
+ * while the parse and compile events are enabled, otherwise the evaluate events
+ * show the expression tree instead.
+ */
+public final class JfrEventListener implements EvaluationListener {
+    private static final int MAXIMUM_TEMPLATE_LENGTH = 256;
+    private static final int CACHE_SIZE = 4096;
+
+    // the code and node count of the expressions, the compiled ones keep the code of their source
+    // and nothing is computed for the disabled events
+    private final @NotNull BoundedCache<Expr, TemplateInfo> templates = new BoundedCache<>(CACHE_SIZE);
+
+    @Override
+    public void lexed(final @NotNull String code, final int tokens, final long nanos, final @Nullable Throwable error) {
+        final LexEvent event = new LexEvent();
+        if (!event.isEnabled()) return;
+
+        event.templateHash = code.hashCode();
+        event.template = truncate(code);
+        event.nodeCount = -1;
+        event.tokenCount = tokens;
+        commit(event, nanos, error);
+    }
+
+    @Override
+    public void parsed(
+            final @NotNull String code,
+            final @Nullable Expr expr,
+            final long nanos,
+            final @Nullable Throwable error
+    ) {
+        final ParseEvent event = new ParseEvent();
+        if (!event.isEnabled()) return;
+
+        final TemplateInfo info = expr == null ? null : templates.get(expr, key -> {
+            return new TemplateInfo(code, Optimizer.count(key));
+        });
+
+        event.templateHash = code.hashCode();
+        event.template = truncate(code);
+        event.nodeCount = info == null ? -1 : info.nodeCount;
+        commit(event, nanos, error);
+    }
+
+    @Override
+    public void compiled(
+            final @NotNull Expr expr,
+            final @Nullable CompiledTemplate template,
+            final long nanos,
+            final @Nullable Throwable error
+    ) {
+        final CompileEvent event = new CompileEvent();
+        if (!event.isEnabled()) return;
+
+        final TemplateInfo source = info(expr);
+        final TemplateInfo info = template == null ? source : templates.get(template.getExpr(), key -> {
+            return new TemplateInfo(source.code, Optimizer.count(key));
+        });
+
+        fill(event, info);
+        commit(event, nanos, error);
+    }
+
+    @Override
+    public void evaluated(
+            final @NotNull Expr expr,
+            final int outputLength,
+            final long nanos,
+            final @Nullable Throwable error
+    ) {
+        final EvaluateEvent event = new EvaluateEvent();
+        if (!event.isEnabled()) return;
+
+        fill(event, info(expr));
+        event.outputLength = outputLength;
+        commit(event, nanos, error);
+    }
+
+    @Override
+    public void called(final @NotNull ConfigFunction function, final long nanos, final @Nullable Throwable error) {
+        final FunctionCallEvent event = new FunctionCallEvent();
+        if (!event.isEnabled()) return;
+
+        event.function = function.getName();
+        event.arity = function.arity();
+        event.memoized = function.getMemoCache() != null;
+        commit(event, nanos, error);
+    }
+
+    private @NotNull TemplateInfo info(final @NotNull Expr expr) {
+        return templates.get(expr, key -> new TemplateInfo(key.toString(), Optimizer.count(key)));
+    }
+
+    private static void fill(final @NotNull TemplateEvent event, final @NotNull TemplateInfo info) {
+        event.templateHash = info.code.hashCode();
+        event.template = truncate(info.code);
+        event.nodeCount = info.nodeCount;
+    }
+
+    private static void commit(final @NotNull ConfigStringsEvent event, final long nanos, final @Nullable Throwable error) {
+        event.elapsed = nanos;
+        event.setError(error);
+        event.commit();
+    }
+
+    private static @NotNull String truncate(final @NotNull String code) {
+        if (code.length() <= MAXIMUM_TEMPLATE_LENGTH) {
+            return code;
+        }
+
+        return code.substring(0, MAXIMUM_TEMPLATE_LENGTH - 3) + "...";
+    }
+
+    private static final class TemplateInfo {
+        private final @NotNull String code;
+        private final int nodeCount;
+
+        private TemplateInfo(@NotNull String code, int nodeCount) {
+            this.code = code;
+            this.nodeCount = nodeCount;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package me.devgabi.configstrings.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("me.devgabi.configstrings.Lex")
+@Label("Template Lex")
+final class LexEvent extends TemplateEvent {
+    @Label("Token Count")
+    int tokenCount;
+}
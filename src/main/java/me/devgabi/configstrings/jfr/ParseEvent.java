@@ -0,0 +1,11 @@
+package me.devgabi.configstrings.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("me.devgabi.configstrings.Parse")
+@Label("Template Parse")
+@Description("A template lexed and parsed on a miss of the parse cache")
+final class ParseEvent extends TemplateEvent {
+}
@@ -0,0 +1,21 @@
+package me.devgabi.configstrings.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+
+/**
+ * The fields of the events of a template step
+ */
+abstract class TemplateEvent extends ConfigStringsEvent {
+    @Label("Template Hash")
+    @Description("The hash of the template code, the same between runs")
+    int templateHash;
+
+    @Label("Template")
+    @Description("The template code, truncated")
+    String template;
+
+    @Label("Node Count")
+    @Description("The number of expression nodes, or -1 if unknown")
+    int nodeCount;
+}
@@ -0,0 +1,100 @@
+package me.devgabi.configstrings.metrics;
+
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Receives the timings of the lexing, parsing, compilation and evaluation of
+ * templates and the calls of functions, when installed with
+ * {@link Instrumentation#install(EvaluationListener)}. The failed steps are
+ * reported too, with their error.
+ * <p>
+ * The methods are called in the evaluating thread, so they must be fast and thread
+ * safe, every method does nothing by default.
+ */
+public interface EvaluationListener {
+    /**
+     * Called when a code was lexed as a whole, with {@link me.devgabi.configstrings.grammar.lexer.Lexer#lex()}
+     * or {@link me.devgabi.configstrings.grammar.lexer.Lexer#lexInto}. The parser pulls the tokens from
+     * the lexer, so lexing is part of the parse time otherwise
+     *
+     * @param code   the code
+     * @param tokens the number of tokens
+     * @param nanos  the lexing time
+     * @param error  the error, or null if it succeeded
+     */
+    default void lexed(@NotNull String code, int tokens, long nanos, @Nullable Throwable error) {
+    }
+
+    /**
+     * Called when a code was lexed and parsed, on the misses of the parse cache
+     *
+     * @param code  the code
+     * @param expr  the parsed expression, or null if it failed
+     * @param nanos the lexing and parsing time
+     * @param error the error, or null if it succeeded
+     */
+    default void parsed(@NotNull String code, @Nullable Expr expr, long nanos, @Nullable Throwable error) {
+    }
+
+    /**
+     * Called when a expression was optimized, linked and compiled into a template
+     *
+     * @param expr     the source expression
+     * @param template the compiled template, or null if it failed
+     * @param nanos    the compilation time
+     * @param error    the error, or null if it succeeded
+     */
+    default void compiled(
+            @NotNull Expr expr,
+            @Nullable CompiledTemplate template,
+            long nanos,
+            @Nullable Throwable error
+    ) {
+    }
+
+    /**
+     * Called when a hot template was compiled into the method handle tier, when that
+     * fails the template keeps evaluating with its closures
+     *
+     * @param template the promoted template
+     * @param nanos    the compilation time
+     * @param error    the error, or null if it succeeded
+     */
+    default void promoted(@NotNull CompiledTemplate template, long nanos, @Nullable Throwable error) {
+    }
+
+    /**
+     * Called when a template was evaluated, the compiled templates are identified by
+     * {@link CompiledTemplate#getExpr()} and the interpreted ones by the evaluated expression
+     *
+     * @param expr         the expression of the template
+     * @param outputLength the length of the output, or -1 if it was evaluated into a value or failed
+     * @param nanos        the evaluation time
+     * @param error        the error, or null if it succeeded
+     */
+    default void evaluated(@NotNull Expr expr, int outputLength, long nanos, @Nullable Throwable error) {
+    }
+
+    /**
+     * Called when a function returned, including the time of memoized calls
+     *
+     * @param function the function
+     * @param nanos    the call time
+     * @param error    the error, or null if it succeeded
+     */
+    default void called(@NotNull ConfigFunction function, long nanos, @Nullable Throwable error) {
+    }
+
+    /**
+     * Called when a named cache, like the parse or the compile cache, was read
+     *
+     * @param cache the cache name
+     * @param hit   if the value was cached
+     */
+    default void cacheAccessed(@NotNull String cache, boolean hit) {
+    }
+}
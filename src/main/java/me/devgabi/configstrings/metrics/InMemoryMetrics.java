@@ -0,0 +1,326 @@
+package me.devgabi.configstrings.metrics;
+
+import me.devgabi.configstrings.cache.BoundedCache;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A listener that keeps the metrics in memory: the parse and compile latencies, the
+ * evaluation latency of each template, the calls and latency of each function and
+ * the hits and misses of each cache. The counters are lock-free and the metrics of
+ * many instances can be merged.
+ * <p>
+ * The templates are keyed by their code, so the evaluations of a template parsed
+ * again after being evicted from the parse cache add to the same latency. Once the
+ * maximum number of templates or functions is reached, the new ones are recorded
+ * together under {@link #OTHER}, like the templates whose code is unknown because
+ * they were parsed before the listener was installed.
+ */
+public final class InMemoryMetrics implements EvaluationListener {
+    /**
+     * The default maximum number of templates and of functions
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    /**
+     * The key of the templates and functions recorded after the maximum was reached
+     */
+    public static final String OTHER = "<other>";
+
+    private static final String ANONYMOUS_FUNCTION = "<anonymous>";
+
+    private final int maximumSize;
+    private final @NotNull LatencyHistogram parseLatency = new LatencyHistogram();
+    private final @NotNull LatencyHistogram compileLatency = new LatencyHistogram();
+    private final @NotNull Map<String, LatencyHistogram> templates = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, LatencyHistogram> functions = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, LongAdder> cacheHits = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, LongAdder> cacheMisses = new ConcurrentHashMap<>();
+    private final @NotNull LongAdder failedPromotions = new LongAdder();
+
+    // the code of the parsed and compiled expressions
+    private final @NotNull BoundedCache<Expr, String> codes;
+
+    public InMemoryMetrics() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a listener that keeps the latencies of at most the given
+     * number of templates and of functions
+     *
+     * @param maximumSize the maximum number of templates and of functions
+     */
+    public InMemoryMetrics(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive but got " + maximumSize);
+        }
+
+        this.maximumSize = maximumSize;
+        this.codes = new BoundedCache<>(maximumSize);
+    }
+
+    @Override
+    public void parsed(
+            final @NotNull String code,
+            final @Nullable Expr expr,
+            final long nanos,
+            final @Nullable Throwable error
+    ) {
+        parseLatency.record(nanos);
+        if (expr != null) {
+            codes.get(expr, key -> code);
+        }
+    }
+
+    @Override
+    public void compiled(
+            final @NotNull Expr expr,
+            final @Nullable CompiledTemplate template,
+            final long nanos,
+            final @Nullable Throwable error
+    ) {
+        compileLatency.record(nanos);
+        if (template == null) {
+            return;
+        }
+
+        final String code = codes.getIfPresent(expr);
+        if (code != null) {
+            codes.get(template.getExpr(), key -> code);
+        }
+    }
+
+    @Override
+    public void promoted(final @NotNull CompiledTemplate template, final long nanos, final @Nullable Throwable error) {
+        if (error != null) {
+            failedPromotions.increment();
+        }
+    }
+
+    @Override
+    public void evaluated(
+            final @NotNull Expr expr,
+            final int outputLength,
+            final long nanos,
+            final @Nullable Throwable error
+    ) {
+        histogram(templates, getCode(expr)).record(nanos);
+    }
+
+    @Override
+    public void called(final @NotNull ConfigFunction function, final long nanos, final @Nullable Throwable error) {
+        final String name = function.getName();
+
+        histogram(functions, name == null ? ANONYMOUS_FUNCTION : name).record(nanos);
+    }
+
+    @Override
+    public void cacheAccessed(final @NotNull String cache, final boolean hit) {
+        counter(hit ? cacheHits : cacheMisses, cache).increment();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public @NotNull LatencyHistogram getParseLatency() {
+        return parseLatency;
+    }
+
+    public @NotNull LatencyHistogram getCompileLatency() {
+        return compileLatency;
+    }
+
+    /**
+     * Returns how many templates failed to compile into the method handle tier,
+     * and kept evaluating with their closures
+     *
+     * @return the failed promotions
+     */
+    public long getFailedPromotions() {
+        return failedPromotions.sum();
+    }
+
+    /**
+     * Returns the evaluation latency of each template, by the code of the template
+     *
+     * @return the latencies
+     */
+    public @NotNull Map<String, LatencyHistogram> getTemplateLatencies() {
+        return Collections.unmodifiableMap(templates);
+    }
+
+    /**
+     * Returns the calls and latency of each function, by the function name
+     *
+     * @return the latencies
+     */
+    public @NotNull Map<String, LatencyHistogram> getFunctionLatencies() {
+        return Collections.unmodifiableMap(functions);
+    }
+
+    /**
+     * Returns the code of a template expression, when it was parsed with this listener installed
+     *
+     * @param expr the expression of a template
+     * @return the code, or {@link #OTHER} when the code is unknown
+     */
+    public @NotNull String getCode(final @NotNull Expr expr) {
+        final String code = codes.getIfPresent(expr);
+
+        return code == null ? OTHER : code;
+    }
+
+    public long getCacheHits(final @NotNull String cache) {
+        final LongAdder hits = cacheHits.get(cache);
+
+        return hits == null ? 0 : hits.sum();
+    }
+
+    public long getCacheMisses(final @NotNull String cache) {
+        final LongAdder misses = cacheMisses.get(cache);
+
+        return misses == null ? 0 : misses.sum();
+    }
+
+    /**
+     * Returns the ratio of hits of the cache
+     *
+     * @param cache the cache name
+     * @return the hit rate, from 0 to 1, or NaN if the cache was not read
+     */
+    public double getCacheHitRate(final @NotNull String cache) {
+        final long hits = getCacheHits(cache);
+        final long total = hits + getCacheMisses(cache);
+
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+
+    /**
+     * Returns the templates with the highest mean evaluation latency
+     *
+     * @param limit how many templates
+     * @return the templates and their latencies, the slowest first
+     */
+    public @NotNull List<Map.Entry<String, LatencyHistogram>> slowestTemplates(final int limit) {
+        final List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(templates.entrySet());
+        entries.sort((lhs, rhs) -> Double.compare(rhs.getValue().getMeanNanos(), lhs.getValue().getMeanNanos()));
+
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    /**
+     * Adds the metrics of the other instance to this one
+     *
+     * @param other the other metrics
+     */
+    public void merge(final @NotNull InMemoryMetrics other) {
+        parseLatency.merge(other.parseLatency);
+        compileLatency.merge(other.compileLatency);
+        other.templates.forEach((code, latency) -> histogram(templates, code).merge(latency));
+        other.functions.forEach((name, latency) -> histogram(functions, name).merge(latency));
+        other.cacheHits.forEach((cache, hits) -> counter(cacheHits, cache).add(hits.sum()));
+        other.cacheMisses.forEach((cache, misses) -> counter(cacheMisses, cache).add(misses.sum()));
+        failedPromotions.add(other.failedPromotions.sum());
+    }
+
+    public void reset() {
+        parseLatency.reset();
+        compileLatency.reset();
+        templates.clear();
+        functions.clear();
+        cacheHits.clear();
+        cacheMisses.clear();
+        failedPromotions.reset();
+        codes.clear();
+    }
+
+    /**
+     * Formats a report with the slowest templates, the most called functions and the
+     * cache hit rates
+     *
+     * @param limit how many templates and functions
+     * @return the report
+     */
+    public @NotNull String report(final int limit) {
+        final StringBuilder report = new StringBuilder();
+        report.append("parse: ").append(parseLatency).append('\n');
+        report.append("compile: ").append(compileLatency).append('\n');
+        report.append("failed promotions: ").append(failedPromotions.sum()).append('\n');
+
+        report.append("slowest templates:\n");
+        for (final Map.Entry<String, LatencyHistogram> entry : slowestTemplates(limit)) {
+            report.append("  ").append(entry.getValue()).append("  ").append(entry.getKey()).append('\n');
+        }
+
+        final List<Map.Entry<String, LatencyHistogram>> calls = new ArrayList<>(functions.entrySet());
+        calls.sort((lhs, rhs) -> Long.compare(rhs.getValue().getCount(), lhs.getValue().getCount()));
+
+        report.append("most called functions:\n");
+        for (final Map.Entry<String, LatencyHistogram> entry : calls.subList(0, Math.min(limit, calls.size()))) {
+            report.append("  ").append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+
+        report.append("caches:\n");
+        for (final String cache : cacheNames()) {
+            report.append(String.format(
+                    "  %s: hits=%d misses=%d hit rate=%.1f%%\n",
+                    cache, getCacheHits(cache), getCacheMisses(cache), getCacheHitRate(cache) * 100
+            ));
+        }
+
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report(10);
+    }
+
+    private List<String> cacheNames() {
+        final List<String> names = new ArrayList<>(cacheHits.keySet());
+        for (final String cache : cacheMisses.keySet()) {
+            if (!names.contains(cache)) {
+                names.add(cache);
+            }
+        }
+
+        Collections.sort(names);
+
+        return names;
+    }
+
+    private LatencyHistogram histogram(final Map<String, LatencyHistogram> histograms, final String key) {
+        final LatencyHistogram histogram = histograms.get(key);
+        if (histogram != null) {
+            return histogram;
+        }
+
+        // concurrent misses may overshoot the maximum by a few entries
+        if (histograms.size() >= maximumSize) {
+            return histograms.computeIfAbsent(OTHER, k -> new LatencyHistogram());
+        }
+
+        return histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    private static LongAdder counter(final Map<String, LongAdder> counters, final String key) {
+        final LongAdder counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
@@ -0,0 +1,37 @@
+package me.devgabi.configstrings.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the installed {@link EvaluationListener}. Without a listener, the
+ * instrumented code only reads this field and skips the timings.
+ */
+public final class Instrumentation {
+    private static volatile @Nullable EvaluationListener listener;
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Installs the listener, replacing the installed one
+     *
+     * @param listener the listener
+     */
+    public static void install(final @NotNull EvaluationListener listener) {
+        Instrumentation.listener = listener;
+    }
+
+    public static void uninstall() {
+        listener = null;
+    }
+
+    /**
+     * Returns the installed listener
+     *
+     * @return the listener, or null if none is installed
+     */
+    public static @Nullable EvaluationListener listener() {
+        return listener;
+    }
+}
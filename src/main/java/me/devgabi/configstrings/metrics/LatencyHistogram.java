@@ -0,0 +1,147 @@
+package me.devgabi.configstrings.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, with log-linear buckets: each
+ * power of two is split in 8 buckets, so the percentiles are within 12.5% of the
+ * recorded values. Histograms can be merged, like the histograms of many threads
+ * or processes.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final @NotNull AtomicLongArray buckets;
+    private final @NotNull LongAdder count;
+    private final @NotNull LongAdder total;
+    private final @NotNull LongAccumulator max;
+
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency
+     *
+     * @param nanos the latency in nanoseconds, negative latencies are recorded as zero
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Adds the latencies of the other histogram to this one
+     *
+     * @param other the other histogram
+     */
+    public void merge(final @NotNull LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            final long bucket = other.buckets.get(i);
+            if (bucket != 0) {
+                buckets.addAndGet(i, bucket);
+            }
+        }
+
+        count.add(other.count.sum());
+        total.add(other.total.sum());
+        max.accumulate(other.max.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getMeanNanos() {
+        final long count = getCount();
+
+        return count == 0 ? 0 : (double) getTotalNanos() / count;
+    }
+
+    /**
+     * Returns the latency at the percentile, as the upper bound of its bucket
+     *
+     * @param percentile the percentile, from 0 to 1
+     * @return the latency in nanoseconds, or 0 if no latency was recorded
+     */
+    public long percentile(final double percentile) {
+        long remaining = (long) Math.ceil(Math.min(Math.max(percentile, 0), 1) * getCount());
+        if (remaining == 0) {
+            remaining = 1;
+        }
+
+        for (int i = 0; i < BUCKETS; i++) {
+            remaining -= buckets.get(i);
+            if (remaining <= 0) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+
+        return getMaxNanos();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus",
+                getCount(),
+                getMeanNanos() / 1e3,
+                percentile(0.50) / 1e3,
+                percentile(0.99) / 1e3,
+                getMaxNanos() / 1e3
+        );
+    }
+
+    private static int bucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = bucket % SUB_BUCKETS;
+
+        return ((SUB_BUCKETS + subBucket + 1) << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,372 @@
+package me.devgabi.configstrings.optimizer;
+
+import me.devgabi.configstrings.evaluator.Evaluator;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.grammar.Token;
+import me.devgabi.configstrings.grammar.TokenType;
+import me.devgabi.configstrings.value.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Folds the constant subexpressions of a expression, unwraps groups and merges
+ * adjacent literal text segments. A subexpression is only folded when it does
+ * not depend on the environment and evaluates without errors, so the runtime
+ * errors are kept as they are. The calls of pure functions that were linked
+ * into the expression are folded too, when all arguments are constant.
+ * <p>
+ * When wrapping the constants, the literals are replaced by their config
+ * values, so they are wrapped once per expression instead of once per
+ * evaluation.
+ */
+public final class Optimizer implements Expr.Visitor<Expr> {
+    private final @NotNull Expr expr;
+    private final @NotNull Evaluator evaluator;
+    private final boolean wrapConstants;
+    private int removedNodes;
+
+    public Optimizer(@NotNull Expr expr) {
+        this(expr, false);
+    }
+
+    public Optimizer(@NotNull Expr expr, boolean wrapConstants) {
+        this.expr = expr;
+        this.evaluator = new Evaluator(Collections.emptyMap());
+        this.wrapConstants = wrapConstants;
+    }
+
+    /**
+     * Optimizes the expression
+     *
+     * @return the optimized expr
+     */
+    public @NotNull Expr optimize() {
+        final Expr optimized = visit(expr);
+
+        removedNodes = count(expr) - count(optimized);
+
+        return optimized;
+    }
+
+    /**
+     * Returns how many nodes were removed by the last {@link #optimize()}
+     *
+     * @return the removed nodes
+     */
+    public int getRemovedNodes() {
+        return removedNodes;
+    }
+
+    @Override
+    public Expr visitConstExpr(final Expr.Const expr) {
+        if (wrapConstants && !(expr.getLiteral() instanceof ConfigValue)) {
+            return new Expr.Const(ConfigValue.of(expr.getLiteral()));
+        }
+
+        return expr;
+    }
+
+    @Override
+    public Expr visitGroupExpr(final Expr.Group expr) {
+        return visit(expr.getExpr());
+    }
+
+    @Override
+    public Expr visitUnaryExpr(final Expr.Unary expr) {
+        final Expr rhs = visit(expr.getRhs());
+
+        return fold(new Expr.Unary(expr.getOp(), rhs), rhs instanceof Expr.Const);
+    }
+
+    @Override
+    public Expr visitLogicalExpr(final Expr.Logical expr) {
+        final Expr lhs = visit(expr.getLhs());
+        final Expr rhs = visit(expr.getRhs());
+
+        // the rhs of && and || is never evaluated when the constant lhs decides the result
+        if (expr.acceptBool() && lhs instanceof Expr.Const) {
+            final ConfigValue value = ConfigValue.of(((Expr.Const) lhs).getLiteral());
+            final TokenType op = expr.getOp().getType();
+
+            if (value instanceof ConfigBool && ((ConfigBool) value).unwrap() == (op == TokenType.OR)) {
+                return lhs;
+            }
+        }
+
+        return fold(new Expr.Logical(lhs, expr.getOp(), rhs), lhs instanceof Expr.Const && rhs instanceof Expr.Const);
+    }
+
+    @Override
+    public Expr visitBinaryExpr(final Expr.Binary expr) {
+        final Expr lhs = visit(expr.getLhs());
+        final Expr rhs = visit(expr.getRhs());
+
+        return fold(new Expr.Binary(lhs, expr.getOp(), rhs), lhs instanceof Expr.Const && rhs instanceof Expr.Const);
+    }
+
+    @Override
+    public Expr visitVarExpr(final Expr.Var expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitCallExpr(final Expr.Call expr) {
+        final Expr callee = visit(expr.getCallee());
+        final List<Expr> arguments = visitAll(expr.getArguments());
+
+        return fold(new Expr.Call(callee, arguments), isPureFunction(callee) && allConstant(arguments));
+    }
+
+    @Override
+    public Expr visitGetExpr(final Expr.Get expr) {
+        return new Expr.Get(visit(expr.getReceiver()), expr.getMember());
+    }
+
+    @Override
+    public Expr visitElvisExpr(final Expr.Elvis expr) {
+        final Expr lhs = visit(expr.getLhs());
+        final Expr rhs = visit(expr.getRhs());
+
+        if (lhs instanceof Expr.Const) {
+            return ConfigValue.of(((Expr.Const) lhs).getLiteral()).isNull() ? rhs : lhs;
+        }
+
+        return new Expr.Elvis(lhs, rhs);
+    }
+
+    @Override
+    public Expr visitTextExpr(final Expr.Text text) {
+        final Token lhs = text.getLhs();
+        final List<Expr> interpolation = visitAll(text.getInterpolation());
+        if (lhs.getLiteral() == null) {
+            return new Expr.Text(lhs, interpolation);
+        }
+
+        final StringBuilder prefix = new StringBuilder(lhs.getLiteral().toString());
+        final List<Expr> parts = new ArrayList<>();
+        StringBuilder segment = null;
+        int segmentPosition = lhs.getPosition();
+
+        for (final Expr element : interpolation) {
+            final String literal = literalText(element);
+
+            if (literal == null) {
+                if (segment != null) {
+                    parts.add(new Expr.Text(new Token(TokenType.STRING, segmentPosition, segment.toString())));
+                    segment = null;
+                }
+
+                parts.add(element);
+            } else if (parts.isEmpty()) {
+                prefix.append(literal);
+            } else if (segment == null) {
+                segment = new StringBuilder(literal);
+                segmentPosition = element instanceof Expr.Text
+                        ? ((Expr.Text) element).getLhs().getPosition()
+                        : lhs.getPosition();
+            } else {
+                segment.append(literal);
+            }
+        }
+
+        if (segment != null) {
+            parts.add(new Expr.Text(new Token(TokenType.STRING, segmentPosition, segment.toString())));
+        }
+
+        if (parts.isEmpty()) {
+            return constant(prefix.toString());
+        }
+
+        return new Expr.Text(new Token(TokenType.STRING, lhs.getPosition(), prefix.toString()), parts);
+    }
+
+    private List<Expr> visitAll(final List<Expr> exprs) {
+        final List<Expr> optimized = new ArrayList<>(exprs.size());
+        for (final Expr element : exprs) {
+            optimized.add(visit(element));
+        }
+
+        return optimized;
+    }
+
+    private Expr fold(final Expr expr, final boolean constant) {
+        if (!constant) {
+            return expr;
+        }
+
+        final ConfigValue value;
+        try {
+            value = evaluator.visit(expr);
+        } catch (final RuntimeException e) {
+            return expr;
+        }
+
+        if (value instanceof ConfigNull) {
+            return constant(null);
+        } else if (value instanceof ConfigNumeric) {
+            return constant(((ConfigNumeric) value).numberValue());
+        } else if (value instanceof ConfigString || value instanceof ConfigBool) {
+            return constant(value.unwrap());
+        }
+
+        return expr;
+    }
+
+    private Expr.Const constant(final @Nullable Object literal) {
+        return new Expr.Const(wrapConstants ? ConfigValue.of(literal) : literal);
+    }
+
+    private static boolean isPureFunction(final Expr expr) {
+        if (!(expr instanceof Expr.Const)) {
+            return false;
+        }
+
+        final Object literal = ((Expr.Const) expr).getLiteral();
+
+        return literal instanceof ConfigFunction && ((ConfigFunction) literal).isPure();
+    }
+
+    private static boolean allConstant(final List<Expr> exprs) {
+        for (final Expr element : exprs) {
+            if (!(element instanceof Expr.Const)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static @Nullable String literalText(final Expr expr) {
+        if (expr instanceof Expr.Const) {
+            return ConfigValue.of(((Expr.Const) expr).getLiteral()).toString();
+        }
+
+        if (expr instanceof Expr.Text) {
+            final Expr.Text text = (Expr.Text) expr;
+            final Object lhs = text.getLhs().getLiteral();
+
+            if (lhs != null && text.getInterpolation().isEmpty()) {
+                return lhs.toString();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Counts the nodes of the expression, without recursion, so deep
+     * trees like long chains of operators do not overflow the stack
+     *
+     * @param expr the expression
+     * @return the node count
+     */
+    public static int count(final @NotNull Expr expr) {
+        final Counter counter = new Counter();
+        counter.pending.push(expr);
+
+        int count = 0;
+        while (!counter.pending.isEmpty()) {
+            counter.pending.pop().accept(counter);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Measures the depth of the expression, the number of nodes in its longest path
+     * from the root, level by level without recursion
+     *
+     * @param expr the expression
+     * @return the depth
+     */
+    public static int depth(final @NotNull Expr expr) {
+        final Counter counter = new Counter();
+        counter.pending.push(expr);
+
+        int depth = 0;
+        while (!counter.pending.isEmpty()) {
+            // the children are pushed to the front, so the nodes of this level are taken from the back
+            for (int remaining = counter.pending.size(); remaining > 0; remaining--) {
+                counter.pending.removeLast().accept(counter);
+            }
+
+            depth++;
+        }
+
+        return depth;
+    }
+
+    // pushes the children of the visited node
+    private static final class Counter implements Expr.Visitor<Void> {
+        private final @NotNull Deque<Expr> pending = new ArrayDeque<>();
+
+        @Override
+        public Void visitConstExpr(final Expr.Const expr) {
+            return null;
+        }
+
+        @Override
+        public Void visitGroupExpr(final Expr.Group expr) {
+            pending.push(expr.getExpr());
+            return null;
+        }
+
+        @Override
+        public Void visitUnaryExpr(final Expr.Unary expr) {
+            pending.push(expr.getRhs());
+            return null;
+        }
+
+        @Override
+        public Void visitLogicalExpr(final Expr.Logical expr) {
+            pending.push(expr.getLhs());
+            pending.push(expr.getRhs());
+            return null;
+        }
+
+        @Override
+        public Void visitBinaryExpr(final Expr.Binary expr) {
+            pending.push(expr.getLhs());
+            pending.push(expr.getRhs());
+            return null;
+        }
+
+        @Override
+        public Void visitVarExpr(final Expr.Var expr) {
+            return null;
+        }
+
+        @Override
+        public Void visitCallExpr(final Expr.Call expr) {
+            pending.push(expr.getCallee());
+            expr.getArguments().forEach(pending::push);
+            return null;
+        }
+
+        @Override
+        public Void visitGetExpr(final Expr.Get expr) {
+            pending.push(expr.getReceiver());
+            return null;
+        }
+
+        @Override
+        public Void visitElvisExpr(final Expr.Elvis expr) {
+            pending.push(expr.getLhs());
+            pending.push(expr.getRhs());
+            return null;
+        }
+
+        @Override
+        public Void visitTextExpr(final Expr.Text text) {
+            text.getInterpolation().forEach(pending::push);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package me.devgabi.configstrings.reactive;
+
+import me.devgabi.configstrings.compiler.Bindings;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A map environment that notifies the changes of its variables, so the templates
+ * are evaluated when their variables change instead of polled.
+ * <p>
+ * The changes are coalesced until {@link #tick()}: a variable changed many times
+ * in a tick is notified once with its last value, and a subscribed template is
+ * evaluated once per tick, only when a variable it references changed, and its
+ * output is only pushed when it differs from the last one.
+ * <p>
+ * The templates are evaluated and the listeners notified outside the lock of the
+ * environment. The failure of a subscription or listener does not stop the others,
+ * it is passed to the error handler of the subscription, or thrown once the tick
+ * notified the others.
+ */
+public final class ObservableEnvironment extends AbstractMap<String, ConfigValue> {
+    private final @NotNull Map<String, ConfigValue> values;
+    // the value of each variable changed in this tick, before the tick, null if it was absent
+    private final @NotNull Map<String, ConfigValue> changed;
+    private final @NotNull Map<String, List<VariableListener>> listeners;
+    private final @NotNull Map<String, Set<Subscription>> subscriptions;
+
+    public ObservableEnvironment() {
+        this(Collections.emptyMap());
+    }
+
+    public ObservableEnvironment(final @NotNull Map<String, ConfigValue> environment) {
+        this.values = new HashMap<>(environment);
+        this.changed = new LinkedHashMap<>();
+        this.listeners = new HashMap<>();
+        this.subscriptions = new HashMap<>();
+    }
+
+    @Override
+    public synchronized @Nullable ConfigValue get(final Object key) {
+        return values.get(key);
+    }
+
+    @Override
+    public synchronized boolean containsKey(final Object key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public synchronized int size() {
+        return values.size();
+    }
+
+    /**
+     * Changes a variable, notified in the next {@link #tick()}
+     *
+     * @param key   the variable name
+     * @param value the new value, or null to remove the variable
+     * @return the previous value
+     */
+    @Override
+    public synchronized @Nullable ConfigValue put(final @NotNull String key, final @Nullable ConfigValue value) {
+        final boolean present = values.containsKey(key);
+        final ConfigValue previous = value == null ? values.remove(key) : values.put(key, value);
+        if (!changed.containsKey(key)) {
+            changed.put(key, present ? previous : null);
+        }
+
+        return previous;
+    }
+
+    @Override
+    public synchronized @Nullable ConfigValue remove(final Object key) {
+        if (!(key instanceof String) || !values.containsKey(key)) {
+            return null;
+        }
+
+        return put((String) key, null);
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (final String key : new ArrayList<>(values.keySet())) {
+            put(key, null);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the variables
+     *
+     * @return the entries
+     */
+    @Override
+    public synchronized @NotNull Set<Entry<String, ConfigValue>> entrySet() {
+        return Collections.unmodifiableMap(new HashMap<>(values)).entrySet();
+    }
+
+    /**
+     * Adds a listener to the changes of a variable
+     *
+     * @param name     the variable name
+     * @param listener the listener
+     */
+    public void addListener(final @NotNull String name, final @NotNull VariableListener listener) {
+        synchronized (this) {
+            listeners.computeIfAbsent(name, key -> new CopyOnWriteArrayList<>()).add(listener);
+        }
+    }
+
+    public void removeListener(final @NotNull String name, final @NotNull VariableListener listener) {
+        synchronized (this) {
+            final List<VariableListener> variableListeners = listeners.get(name);
+            if (variableListeners != null) {
+                variableListeners.remove(listener);
+            }
+        }
+    }
+
+    /**
+     * Subscribes a template to the variables it references, the output with the
+     * current variables is pushed to the consumer right away. The errors of the
+     * later evaluations are thrown by {@link #tick()}
+     *
+     * @param template the template
+     * @param consumer the consumer of the outputs
+     * @return the subscription
+     * @throws RuntimeException if the first evaluation or push failed, then it is not subscribed
+     */
+    public @NotNull Subscription subscribe(
+            final @NotNull CompiledTemplate template,
+            final @NotNull Consumer<String> consumer
+    ) {
+        return subscribe(template, consumer, null);
+    }
+
+    /**
+     * Subscribes a template to the variables it references, the output with the
+     * current variables is pushed to the consumer right away
+     *
+     * @param template     the template
+     * @param consumer     the consumer of the outputs
+     * @param errorHandler the handler of the evaluation and consumer errors, or
+     *                     null to throw them from {@link #tick()}
+     * @return the subscription
+     * @throws RuntimeException if the first evaluation or push failed without a error
+     *                          handler, then it is not subscribed
+     */
+    public @NotNull Subscription subscribe(
+            final @NotNull CompiledTemplate template,
+            final @NotNull Consumer<String> consumer,
+            final @Nullable Consumer<RuntimeException> errorHandler
+    ) {
+        final Subscription subscription = new Subscription(this, template, consumer, errorHandler);
+        final Bindings snapshot;
+        final long evaluation;
+
+        synchronized (this) {
+            subscription.getBindings().setAll(values);
+            for (final String name : template.getLayout().names()) {
+                subscriptions.computeIfAbsent(name, key -> new LinkedHashSet<>()).add(subscription);
+            }
+
+            snapshot = subscription.getBindings().copy();
+            evaluation = subscription.nextEvaluation();
+        }
+
+        try {
+            subscription.update(snapshot, evaluation);
+        } catch (final RuntimeException e) {
+            subscription.cancel();
+            throw e;
+        }
+
+        return subscription;
+    }
+
+    /**
+     * Ends the tick: notifies the listeners of the variables that changed, and
+     * pushes the new outputs of the subscriptions that reference them. The changes
+     * made while notifying belong to the next tick
+     *
+     * @return how many variables changed
+     * @throws RuntimeException the first error of a listener, or of a subscription
+     *                          without error handler, after notifying the others
+     */
+    public int tick() {
+        final List<Runnable> notifications = new ArrayList<>();
+        int changes = 0;
+
+        synchronized (this) {
+            if (changed.isEmpty()) {
+                return 0;
+            }
+
+            final Set<Subscription> affected = new LinkedHashSet<>();
+            for (final Map.Entry<String, ConfigValue> change : changed.entrySet()) {
+                final String name = change.getKey();
+                final ConfigValue previous = change.getValue();
+                final ConfigValue current = values.get(name);
+                if (ConfigValue.same(previous, current)) {
+                    continue; // changed back in the same tick
+                }
+
+                changes++;
+                for (final VariableListener listener : listeners.getOrDefault(name, Collections.emptyList())) {
+                    notifications.add(() -> listener.changed(name, previous, current));
+                }
+
+                for (final Subscription subscription : subscriptions.getOrDefault(name, Collections.emptySet())) {
+                    subscription.getBindings().set(name, current);
+                    affected.add(subscription);
+                }
+            }
+
+            changed.clear();
+
+            // the evaluations run outside the lock, with the bindings of this tick
+            for (final Subscription subscription : affected) {
+                final Bindings snapshot = subscription.getBindings().copy();
+                final long evaluation = subscription.nextEvaluation();
+                notifications.add(() -> subscription.update(snapshot, evaluation));
+            }
+        }
+
+        RuntimeException error = null;
+        for (final Runnable notification : notifications) {
+            try {
+                notification.run();
+            } catch (final RuntimeException e) {
+                if (error == null) {
+                    error = e;
+                } else if (error != e) {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+
+        return changes;
+    }
+
+    synchronized void unsubscribe(final @NotNull Subscription subscription) {
+        for (final String name : subscription.getTemplate().getLayout().names()) {
+            final Set<Subscription> variableSubscriptions = subscriptions.get(name);
+            if (variableSubscriptions != null) {
+                variableSubscriptions.remove(subscription);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package me.devgabi.configstrings.reactive;
+
+import me.devgabi.configstrings.compiler.Bindings;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * A template subscribed to a {@link ObservableEnvironment}, that receives its new
+ * output when a tick changes any of the variables it references. The outputs are
+ * pushed to the consumer one at a time, and a output older than the last pushed
+ * one is dropped.
+ */
+public final class Subscription {
+    private final @NotNull ObservableEnvironment environment;
+    private final @NotNull CompiledTemplate template;
+    private final @NotNull Bindings bindings;
+    private final @NotNull Consumer<String> consumer;
+    private final @Nullable Consumer<RuntimeException> errorHandler;
+    private volatile @Nullable String output;
+    private volatile boolean cancelled;
+
+    // the last evaluation started, guarded by the environment
+    private long started;
+
+    // the last evaluation committed, guarded by this
+    private long committed;
+
+    Subscription(
+            @NotNull ObservableEnvironment environment,
+            @NotNull CompiledTemplate template,
+            @NotNull Consumer<String> consumer,
+            @Nullable Consumer<RuntimeException> errorHandler
+    ) {
+        this.environment = environment;
+        this.template = template;
+        this.bindings = template.getLayout().bindings();
+        this.consumer = consumer;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Stops receiving the outputs of the template
+     */
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            environment.unsubscribe(this);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns the last output pushed to the consumer
+     *
+     * @return the output, or null if none was pushed
+     */
+    public @Nullable String getOutput() {
+        return output;
+    }
+
+    public @NotNull CompiledTemplate getTemplate() {
+        return template;
+    }
+
+    @NotNull Bindings getBindings() {
+        return bindings;
+    }
+
+    long nextEvaluation() {
+        return ++started;
+    }
+
+    /**
+     * Evaluates the template with a snapshot of its bindings, and pushes the output
+     * when it differs from the last one. The output is only kept once the consumer
+     * accepted it, so a failed push is retried by the next evaluation
+     *
+     * @param snapshot   the bindings when the evaluation started
+     * @param evaluation the evaluation number, from {@link #nextEvaluation()}
+     * @throws RuntimeException if the evaluation or the push failed and there is no error handler
+     */
+    void update(final @NotNull Bindings snapshot, final long evaluation) {
+        final String evaluated;
+        try {
+            evaluated = template.evaluate(snapshot);
+        } catch (final RuntimeException e) {
+            fail(e);
+            return;
+        }
+
+        synchronized (this) {
+            if (cancelled || evaluation <= committed) {
+                return;
+            }
+
+            committed = evaluation;
+            if (evaluated.equals(output)) {
+                return;
+            }
+
+            try {
+                consumer.accept(evaluated);
+            } catch (final RuntimeException e) {
+                fail(e);
+                return;
+            }
+
+            output = evaluated;
+        }
+    }
+
+    private void fail(final @NotNull RuntimeException error) {
+        if (errorHandler == null) {
+            throw error;
+        }
+
+        errorHandler.accept(error);
+    }
+}
@@ -0,0 +1,21 @@
+package me.devgabi.configstrings.reactive;
+
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Listens to the changes of a variable of a {@link ObservableEnvironment}, that
+ * are notified once per tick with the value before the tick and the last value
+ */
+@FunctionalInterface
+public interface VariableListener {
+    /**
+     * Called when the variable changed in the tick
+     *
+     * @param name     the variable name
+     * @param previous the value before the tick, or null if it was absent
+     * @param current  the value after the tick, or null if it was removed
+     */
+    void changed(@NotNull String name, @Nullable ConfigValue previous, @Nullable ConfigValue current);
+}
@@ -1,29 +1,242 @@
 package me.devgabi.configstrings.reflection;
 
 import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public final class ReflectionUtils {
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    // Class#getRecordComponents and RecordComponent#getAccessor, null before java 16
+    private static final @Nullable Method GET_RECORD_COMPONENTS;
+    private static final @Nullable Method GET_ACCESSOR;
+
+    static {
+        Method getRecordComponents;
+        Method getAccessor;
+        try {
+            getRecordComponents = Class.class.getMethod("getRecordComponents");
+            getAccessor = Class.forName("java.lang.reflect.RecordComponent").getMethod("getAccessor");
+        } catch (final ReflectiveOperationException e) {
+            getRecordComponents = null;
+            getAccessor = null;
+        }
+
+        GET_RECORD_COMPONENTS = getRecordComponents;
+        GET_ACCESSOR = getAccessor;
+    }
+
+    /**
+     * The property accessors of each class, resolved once per class. The accessors
+     * are method handles of type {@code (Object)Object}, that reference their class,
+     * so they are held softly: a strong value would keep the classes of a plugin or
+     * webapp class loader reachable from the class value after it is unloaded
+     */
+    private static final ClassValue<SoftReference<Map<String, MethodHandle>>> ACCESSORS =
+            new ClassValue<SoftReference<Map<String, MethodHandle>>>() {
+                @Override
+                protected SoftReference<Map<String, MethodHandle>> computeValue(final Class<?> type) {
+                    return new SoftReference<>(resolveAccessors(type));
+                }
+            };
+
+    private ReflectionUtils() {
+    }
+
     public static Map<String, ConfigValue> transformObjectToPropertyMap(final Object object) {
-        final Map<String, ConfigValue> dest = new HashMap<>();
-        final Class<?> aClass = object.getClass();
-
-        for (final Field field : aClass.getDeclaredFields()) {
-            final String name = field.getName();
-            try {
-                final Object valueObject = field.get(object);
-                final ConfigValue value = ConfigValue.of(valueObject);
-
-                dest.put(name, value);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
+        final Map<String, MethodHandle> accessors = getAccessors(object.getClass());
+        final Map<String, ConfigValue> dest = new HashMap<>((int) (accessors.size() / 0.75f) + 1);
+
+        for (final Map.Entry<String, MethodHandle> entry : accessors.entrySet()) {
+            dest.put(entry.getKey(), ConfigValue.of(read(entry.getValue(), object)));
         }
 
         return dest;
     }
 
+    /**
+     * Returns the property accessors of the class, resolved once per class, and
+     * again when the collector cleared them under memory pressure
+     *
+     * @param type the class
+     * @return the accessors of type {@code (Object)Object} by property name
+     */
+    public static @NotNull Map<String, MethodHandle> getAccessors(final @NotNull Class<?> type) {
+        final Map<String, MethodHandle> accessors = ACCESSORS.get(type).get();
+        if (accessors != null) {
+            return accessors;
+        }
+
+        ACCESSORS.remove(type);
+        final Map<String, MethodHandle> resolved = ACCESSORS.get(type).get();
+
+        return resolved != null ? resolved : resolveAccessors(type);
+    }
+
+    /**
+     * Reads a property with a accessor from {@link #getAccessors(Class)}
+     *
+     * @param accessor the property accessor
+     * @param object   the object
+     * @return the property value
+     */
+    public static @Nullable Object read(final @NotNull MethodHandle accessor, final @NotNull Object object) {
+        try {
+            return (Object) accessor.invokeExact(object);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable throwable) {
+            throw new RuntimeException(throwable);
+        }
+    }
+
+    /**
+     * Resolves the properties of the class: the components of records, otherwise
+     * the instance fields of the class and its superclasses and the public
+     * JavaBean getters, the getters taking precedence over fields of same name
+     *
+     * @param type the class
+     * @return the accessors by property name
+     */
+    private static @NotNull Map<String, MethodHandle> resolveAccessors(final @NotNull Class<?> type) {
+        final Map<String, MethodHandle> accessors = new LinkedHashMap<>();
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        final List<Method> components = recordComponents(type);
+        if (components != null) {
+            for (final Method accessor : components) {
+                final MethodHandle handle = unreflect(lookup, accessor);
+                if (handle != null) {
+                    accessors.put(accessor.getName(), handle);
+                }
+            }
+
+            return Collections.unmodifiableMap(accessors);
+        }
+
+        final List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+
+        // the superclasses first, so the fields of subclasses shadow them
+        for (final Class<?> current : hierarchy) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+
+                final MethodHandle handle = unreflectGetter(lookup, field);
+                if (handle != null) {
+                    accessors.put(field.getName(), handle);
+                }
+            }
+        }
+
+        for (final Method method : type.getMethods()) {
+            final String property = propertyName(method);
+            if (property == null) continue;
+
+            final MethodHandle handle = unreflect(lookup, method);
+            if (handle != null) {
+                accessors.put(property, handle);
+            }
+        }
+
+        return Collections.unmodifiableMap(accessors);
+    }
+
+    private static @Nullable List<Method> recordComponents(final @NotNull Class<?> type) {
+        if (GET_RECORD_COMPONENTS == null || GET_ACCESSOR == null) {
+            return null;
+        }
+
+        try {
+            final Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+            if (components == null) {
+                return null;
+            }
+
+            final List<Method> accessors = new ArrayList<>(components.length);
+            for (final Object component : components) {
+                accessors.add((Method) GET_ACCESSOR.invoke(component));
+            }
+
+            return accessors;
+        } catch (final ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the property name of a JavaBean getter, like {@code getName} or
+     * {@code isEnabled} for booleans
+     *
+     * @param method the method
+     * @return the property name, or null if the method is not a getter
+     */
+    private static @Nullable String propertyName(final @NotNull Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.isSynthetic() || method.isBridge()) return null;
+        if (method.getParameterCount() != 0 || method.getDeclaringClass() == Object.class) return null;
+
+        final String name = method.getName();
+        final Class<?> returnType = method.getReturnType();
+
+        final int prefix;
+        if (name.startsWith("get") && name.length() > 3 && returnType != void.class) {
+            prefix = 3;
+        } else if (name.startsWith("is") && name.length() > 2 && returnType == boolean.class) {
+            prefix = 2;
+        } else {
+            return null;
+        }
+
+        // same as java.beans.Introspector#decapitalize, "URL" stays "URL"
+        if (name.length() > prefix + 1 && Character.isUpperCase(name.charAt(prefix + 1))
+                && Character.isUpperCase(name.charAt(prefix))) {
+            return name.substring(prefix);
+        }
+
+        return Character.toLowerCase(name.charAt(prefix)) + name.substring(prefix + 1);
+    }
+
+    private static @Nullable MethodHandle unreflect(final MethodHandles.Lookup lookup, final @NotNull Method method) {
+        try {
+            method.setAccessible(true);
+        } catch (final RuntimeException e) {
+            // not opened to this module, still readable when public
+        }
+
+        try {
+            return lookup.unreflect(method).asType(ACCESSOR_TYPE);
+        } catch (final IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable MethodHandle unreflectGetter(final MethodHandles.Lookup lookup, final @NotNull Field field) {
+        try {
+            field.setAccessible(true);
+        } catch (final RuntimeException e) {
+            // not opened to this module, still readable when public
+        }
+
+        try {
+            return lookup.unreflectGetter(field).asType(ACCESSOR_TYPE);
+        } catch (final IllegalAccessException e) {
+            return null;
+        }
+    }
 }
@@ -2,10 +2,10 @@ package me.devgabi.configstrings.value;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Objects;
-
 public final class ConfigBool extends ConfigValue {
     public static final String TYPE_NAME = "bool";
+    public static final ConfigBool TRUE = new ConfigBool(true);
+    public static final ConfigBool FALSE = new ConfigBool(false);
 
     private final boolean bool;
 
@@ -24,7 +24,7 @@ public final class ConfigBool extends ConfigValue {
     }
 
     public static @NotNull ConfigBool of(final boolean bool) {
-        return new ConfigBool(bool);
+        return bool ? TRUE : FALSE;
     }
 
     @Override
@@ -37,7 +37,7 @@ public final class ConfigBool extends ConfigValue {
 
     @Override
     public int hashCode() {
-        return Objects.hash(bool);
+        return Boolean.hashCode(bool);
     }
 
     @Override
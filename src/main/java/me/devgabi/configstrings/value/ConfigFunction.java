@@ -1,30 +1,360 @@
 package me.devgabi.configstrings.value;
 
+import me.devgabi.configstrings.async.AsyncBatch;
+import me.devgabi.configstrings.cache.BoundedCache;
+import me.devgabi.configstrings.evaluator.EvalException;
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.metrics.Instrumentation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * A function value, either with a fixed shape of up to three arguments, that is
+ * called without collecting the arguments, or variadic, that receives them in a list.
+ * <p>
+ * The arity is the minimum number of arguments, the extra arguments of fixed
+ * functions are ignored.
+ * <p>
+ * A function can be marked as pure, when its result only depends on the arguments
+ * and it has no side effects, then the calls with constant arguments are folded
+ * when compiling, and it can memoize its results in a bounded cache.
+ */
 public final class ConfigFunction extends ConfigValue {
     public static final String TYPE_NAME = "function";
 
+    private static final ConfigValue[] NO_ARGUMENTS = new ConfigValue[0];
+
     private final int arity;
-    private final Function<List<ConfigValue>, ConfigValue> function;
+    private final boolean variadic;
+    private final @NotNull Object function;
+    private final boolean pure;
+    private final @Nullable BoundedCache<MemoKey, ConfigValue> memo;
+    private final @Nullable String name;
 
-    private ConfigFunction(int arity, Function<List<ConfigValue>, ConfigValue> function) {
+    private ConfigFunction(
+            int arity,
+            boolean variadic,
+            @NotNull Object function,
+            boolean pure,
+            @Nullable BoundedCache<MemoKey, ConfigValue> memo,
+            @Nullable String name
+    ) {
         this.arity = arity;
+        this.variadic = variadic;
         this.function = function;
+        this.pure = pure;
+        this.memo = memo;
+        this.name = name;
+    }
+
+    public @NotNull ConfigValue invoke() {
+        checkArity(0);
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return call();
+        }
+
+        return measure(listener, () -> call());
+    }
+
+    public @NotNull ConfigValue invoke(final @NotNull ConfigValue first) {
+        checkArity(1);
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return call(first);
+        }
+
+        return measure(listener, () -> call(first));
+    }
+
+    public @NotNull ConfigValue invoke(final @NotNull ConfigValue first, final @NotNull ConfigValue second) {
+        checkArity(2);
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return call(first, second);
+        }
+
+        return measure(listener, () -> call(first, second));
+    }
+
+    public @NotNull ConfigValue invoke(
+            final @NotNull ConfigValue first,
+            final @NotNull ConfigValue second,
+            final @NotNull ConfigValue third
+    ) {
+        checkArity(3);
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return call(first, second, third);
+        }
+
+        return measure(listener, () -> call(first, second, third));
+    }
+
+    public @NotNull ConfigValue invoke(final @NotNull ConfigValue @NotNull [] arguments) {
+        switch (arguments.length) {
+            case 0:
+                return invoke();
+
+            case 1:
+                return invoke(arguments[0]);
+
+            case 2:
+                return invoke(arguments[0], arguments[1]);
+
+            case 3:
+                return invoke(arguments[0], arguments[1], arguments[2]);
+
+            default:
+                checkArity(arguments.length);
+
+                final EvaluationListener listener = Instrumentation.listener();
+                if (listener == null) {
+                    return call(arguments);
+                }
+
+                return measure(listener, () -> call(arguments));
+        }
+    }
+
+    public @NotNull ConfigValue invoke(final @NotNull List<ConfigValue> arguments) {
+        if (!variadic) {
+            return invoke(arguments.toArray(NO_ARGUMENTS));
+        }
+
+        checkArity(arguments.size());
+
+        final EvaluationListener listener = Instrumentation.listener();
+        if (listener == null) {
+            return call(arguments);
+        }
+
+        return measure(listener, () -> call(arguments));
+    }
+
+    /**
+     * Returns this function marked as pure, its result only depends on the
+     * arguments and it has no side effects
+     *
+     * @return the pure function
+     */
+    public @NotNull ConfigFunction pure() {
+        return new ConfigFunction(arity, variadic, function, true, memo, name);
+    }
+
+    /**
+     * Returns this function marked as pure, memoizing the results by arguments
+     * in a bounded cache
+     *
+     * @param maximumSize the maximum number of memoized results
+     * @return the memoized function
+     */
+    public @NotNull ConfigFunction memoized(final int maximumSize) {
+        return new ConfigFunction(arity, variadic, function, true, new BoundedCache<>(maximumSize), name);
+    }
+
+    /**
+     * Returns this function with a name, that identifies it in the
+     * {@link me.devgabi.configstrings.metrics.EvaluationListener} events
+     *
+     * @param name the function name
+     * @return the named function
+     */
+    public @NotNull ConfigFunction named(final @NotNull String name) {
+        return new ConfigFunction(arity, variadic, function, pure, memo, name);
     }
 
-    public ConfigValue invoke(final List<ConfigValue> arguments) {
-        return function.apply(arguments);
+    /**
+     * Returns the name of this function
+     *
+     * @return the name, or null if the function was not named
+     */
+    public @Nullable String getName() {
+        return name;
     }
 
     public int arity() {
         return arity;
     }
 
+    public boolean isVariadic() {
+        return variadic;
+    }
+
+    public boolean isPure() {
+        return pure;
+    }
+
+    /**
+     * Returns the memo cache of this function, that exposes the hit, miss and eviction counters
+     *
+     * @return the memo cache, or null if this function is not memoized
+     */
+    public @Nullable BoundedCache<?, ConfigValue> getMemoCache() {
+        return memo;
+    }
+
+    // the listener is checked by the callers, so the uninstrumented calls do not capture a lambda
+    private @NotNull ConfigValue measure(
+            final @NotNull EvaluationListener listener,
+            final @NotNull Supplier<ConfigValue> call
+    ) {
+        final long start = System.nanoTime();
+        final ConfigValue result;
+        try {
+            result = call.get();
+        } catch (final RuntimeException e) {
+            if (!AsyncBatch.isSuspension(e)) {
+                listener.called(this, System.nanoTime() - start, e);
+            }
+            throw e;
+        }
+
+        listener.called(this, System.nanoTime() - start, null);
+
+        return result;
+    }
+
+    private @NotNull ConfigValue call() {
+        if (memo != null) {
+            return memo.get(new MemoKey(NO_ARGUMENTS), key -> apply());
+        }
+
+        return apply();
+    }
+
+    private @NotNull ConfigValue call(final @NotNull ConfigValue first) {
+        if (memo != null) {
+            return memo.get(new MemoKey(first), key -> apply(first));
+        }
+
+        return apply(first);
+    }
+
+    private @NotNull ConfigValue call(final @NotNull ConfigValue first, final @NotNull ConfigValue second) {
+        if (memo != null) {
+            return memo.get(new MemoKey(first, second), key -> apply(first, second));
+        }
+
+        return apply(first, second);
+    }
+
+    private @NotNull ConfigValue call(
+            final @NotNull ConfigValue first,
+            final @NotNull ConfigValue second,
+            final @NotNull ConfigValue third
+    ) {
+        if (memo != null) {
+            return memo.get(new MemoKey(first, second, third), key -> {
+                return apply(first, second, third);
+            });
+        }
+
+        return apply(first, second, third);
+    }
+
+    private @NotNull ConfigValue call(final @NotNull ConfigValue @NotNull [] arguments) {
+        if (memo != null) {
+            final ConfigValue[] values = arguments.clone();
+
+            return memo.get(new MemoKey(values), key -> apply(Arrays.asList(values)));
+        }
+
+        return apply(Arrays.asList(arguments));
+    }
+
+    private @NotNull ConfigValue call(final @NotNull List<ConfigValue> arguments) {
+        if (memo != null) {
+            final ConfigValue[] values = arguments.toArray(NO_ARGUMENTS);
+
+            return memo.get(new MemoKey(values), key -> invokeVariadic(Arrays.asList(values)));
+        }
+
+        return invokeVariadic(arguments);
+    }
+
+    private @NotNull ConfigValue apply() {
+        if (variadic) {
+            return invokeVariadic(Collections.emptyList());
+        }
+
+        return ((Nullary) function).apply();
+    }
+
+    private @NotNull ConfigValue apply(final @NotNull ConfigValue first) {
+        if (variadic) {
+            return invokeVariadic(Collections.singletonList(first));
+        }
+
+        switch (arity) {
+            case 0:
+                return ((Nullary) function).apply();
+
+            default:
+                return ((Unary) function).apply(first);
+        }
+    }
+
+    private @NotNull ConfigValue apply(final @NotNull ConfigValue first, final @NotNull ConfigValue second) {
+        if (variadic) {
+            return invokeVariadic(Arrays.asList(first, second));
+        }
+
+        switch (arity) {
+            case 0:
+                return ((Nullary) function).apply();
+
+            case 1:
+                return ((Unary) function).apply(first);
+
+            default:
+                return ((Binary) function).apply(first, second);
+        }
+    }
+
+    private @NotNull ConfigValue apply(
+            final @NotNull ConfigValue first,
+            final @NotNull ConfigValue second,
+            final @NotNull ConfigValue third
+    ) {
+        if (variadic) {
+            return invokeVariadic(Arrays.asList(first, second, third));
+        }
+
+        switch (arity) {
+            case 0:
+                return ((Nullary) function).apply();
+
+            case 1:
+                return ((Unary) function).apply(first);
+
+            case 2:
+                return ((Binary) function).apply(first, second);
+
+            default:
+                return ((Ternary) function).apply(first, second, third);
+        }
+    }
+
+    private @NotNull ConfigValue apply(final @NotNull List<ConfigValue> arguments) {
+        if (variadic) {
+            return invokeVariadic(arguments);
+        }
+
+        return apply(arguments.get(0), arguments.get(1), arguments.get(2));
+    }
+
     @Override
     public @NotNull Object unwrap() {
         return function;
@@ -35,8 +365,42 @@ public final class ConfigFunction extends ConfigValue {
         return TYPE_NAME;
     }
 
+    private void checkArity(final int arguments) {
+        if (arity > arguments) {
+            throw new EvalException("Incorrect function arity");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull ConfigValue invokeVariadic(final @NotNull List<ConfigValue> arguments) {
+        return ((Function<List<ConfigValue>, ConfigValue>) function).apply(arguments);
+    }
+
+    public static @NotNull ConfigFunction of(final @NotNull Nullary function) {
+        return new ConfigFunction(0, false, function, false, null, null);
+    }
+
+    public static @NotNull ConfigFunction of(final @NotNull Unary function) {
+        return new ConfigFunction(1, false, function, false, null, null);
+    }
+
+    public static @NotNull ConfigFunction of(final @NotNull Binary function) {
+        return new ConfigFunction(2, false, function, false, null, null);
+    }
+
+    public static @NotNull ConfigFunction of(final @NotNull Ternary function) {
+        return new ConfigFunction(3, false, function, false, null, null);
+    }
+
+    /**
+     * Creates a variadic function, that receives every argument in a list
+     *
+     * @param arity    the minimum number of arguments
+     * @param function the function
+     * @return the function value
+     */
     public static @NotNull ConfigFunction of(final int arity, final Function<List<ConfigValue>, ConfigValue> function) {
-        return new ConfigFunction(arity, function);
+        return new ConfigFunction(arity, true, function, false, null, null);
     }
 
     @Override
@@ -57,4 +421,55 @@ public final class ConfigFunction extends ConfigValue {
         return "function";
     }
 
+    @FunctionalInterface
+    public interface Nullary {
+        @NotNull ConfigValue apply();
+    }
+
+    @FunctionalInterface
+    public interface Unary {
+        @NotNull ConfigValue apply(@NotNull ConfigValue first);
+    }
+
+    @FunctionalInterface
+    public interface Binary {
+        @NotNull ConfigValue apply(@NotNull ConfigValue first, @NotNull ConfigValue second);
+    }
+
+    @FunctionalInterface
+    public interface Ternary {
+        @NotNull ConfigValue apply(@NotNull ConfigValue first, @NotNull ConfigValue second, @NotNull ConfigValue third);
+    }
+
+    /**
+     * The arguments of a memoized call, the values are only equal with the same
+     * type, so a integer argument never shares the result of a double
+     */
+    private static final class MemoKey {
+        private final @NotNull ConfigValue @NotNull [] arguments;
+        private final int hash;
+
+        private MemoKey(@NotNull ConfigValue @NotNull ... arguments) {
+            this.arguments = arguments;
+            this.hash = Arrays.hashCode(arguments);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            MemoKey that = (MemoKey) o;
+            if (hash != that.hash || arguments.length != that.arguments.length) return false;
+            for (int i = 0; i < arguments.length; i++) {
+                if (arguments[i].getClass() != that.arguments[i].getClass()) return false;
+                if (!arguments[i].equals(that.arguments[i])) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package me.devgabi.configstrings.value;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A exact 64-bit integer numeric, the small values are cached
+ */
+public final class ConfigInteger extends ConfigNumeric {
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final ConfigInteger[] CACHE = new ConfigInteger[CACHE_HIGH - CACHE_LOW];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new ConfigInteger(i + CACHE_LOW);
+        }
+    }
+
+    private final long integer;
+
+    private ConfigInteger(long integer) {
+        super(integer);
+        this.integer = integer;
+    }
+
+    @Override
+    public long longValue() {
+        return integer;
+    }
+
+    @Override
+    public @NotNull Long numberValue() {
+        return integer;
+    }
+
+    @Override
+    public boolean isIntegral() {
+        return true;
+    }
+
+    public static @NotNull ConfigInteger of(final long integer) {
+        if (integer >= CACHE_LOW && integer < CACHE_HIGH) {
+            return CACHE[(int) integer - CACHE_LOW];
+        }
+
+        return new ConfigInteger(integer);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(integer);
+    }
+}
@@ -2,17 +2,36 @@ package me.devgabi.configstrings.value;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Objects;
-
-public final class ConfigNumeric extends ConfigValue {
+/**
+ * A double numeric, the integral numbers are represented exactly by the
+ * {@link ConfigInteger} subclass. The arithmetic between two integers stays
+ * exact, and is only promoted to double when it overflows or has a fraction.
+ */
+public class ConfigNumeric extends ConfigValue {
     public static final String TYPE_NAME = "numeric";
 
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final ConfigNumeric[] CACHE = new ConfigNumeric[CACHE_HIGH - CACHE_LOW];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new ConfigNumeric(i + CACHE_LOW);
+        }
+    }
+
     private final double numeric;
 
-    private ConfigNumeric(double numeric) {
+    ConfigNumeric(double numeric) {
         this.numeric = numeric;
     }
 
+    /**
+     * Returns the numeric as a {@link Double}, the integers above 2^53 are rounded,
+     * use {@link #numberValue()} to unwrap them exactly
+     *
+     * @return the boxed numeric
+     */
     @Override
     public @NotNull Double unwrap() {
         return numeric;
@@ -23,21 +42,162 @@ public final class ConfigNumeric extends ConfigValue {
         return "numeric";
     }
 
+    public double doubleValue() {
+        return numeric;
+    }
+
+    public long longValue() {
+        return (long) numeric;
+    }
+
+    /**
+     * Returns the numeric as a {@link Double}, or as a {@link Long} when it is a
+     * {@link ConfigInteger}, so the integers above 2^53 are unwrapped exactly
+     *
+     * @return the boxed numeric
+     */
+    public @NotNull Number numberValue() {
+        return numeric;
+    }
+
+    /**
+     * Returns if this numeric is a exact integer
+     *
+     * @return if it is a {@link ConfigInteger}
+     */
+    public boolean isIntegral() {
+        return false;
+    }
+
+    public @NotNull ConfigNumeric plus(final @NotNull ConfigNumeric other) {
+        if (isIntegral() && other.isIntegral()) {
+            final long lhs = longValue();
+            final long rhs = other.longValue();
+            final long result = lhs + rhs;
+
+            if (((lhs ^ result) & (rhs ^ result)) >= 0) {
+                return ConfigInteger.of(result);
+            }
+        }
+
+        return of(doubleValue() + other.doubleValue());
+    }
+
+    public @NotNull ConfigNumeric minus(final @NotNull ConfigNumeric other) {
+        if (isIntegral() && other.isIntegral()) {
+            final long lhs = longValue();
+            final long rhs = other.longValue();
+            final long result = lhs - rhs;
+
+            if (((lhs ^ rhs) & (lhs ^ result)) >= 0) {
+                return ConfigInteger.of(result);
+            }
+        }
+
+        return of(doubleValue() - other.doubleValue());
+    }
+
+    public @NotNull ConfigNumeric times(final @NotNull ConfigNumeric other) {
+        if (isIntegral() && other.isIntegral()) {
+            final long lhs = longValue();
+            final long rhs = other.longValue();
+            final long high = Math.multiplyHigh(lhs, rhs);
+            final long result = lhs * rhs;
+
+            if (high == (result >> 63)) {
+                return ConfigInteger.of(result);
+            }
+        }
+
+        return of(doubleValue() * other.doubleValue());
+    }
+
+    public @NotNull ConfigNumeric div(final @NotNull ConfigNumeric other) {
+        if (isIntegral() && other.isIntegral()) {
+            final long lhs = longValue();
+            final long rhs = other.longValue();
+
+            if (rhs != 0 && lhs % rhs == 0 && !(lhs == Long.MIN_VALUE && rhs == -1)) {
+                return ConfigInteger.of(lhs / rhs);
+            }
+        }
+
+        return of(doubleValue() / other.doubleValue());
+    }
+
+    public @NotNull ConfigNumeric negate() {
+        if (isIntegral() && longValue() != Long.MIN_VALUE) {
+            return ConfigInteger.of(-longValue());
+        }
+
+        return of(-doubleValue());
+    }
+
+    public boolean greater(final @NotNull ConfigNumeric other) {
+        if (isIntegral() && other.isIntegral()) {
+            return longValue() > other.longValue();
+        }
+
+        return doubleValue() > other.doubleValue();
+    }
+
+    public boolean greaterEquals(final @NotNull ConfigNumeric other) {
+        if (isIntegral() && other.isIntegral()) {
+            return longValue() >= other.longValue();
+        }
+
+        return doubleValue() >= other.doubleValue();
+    }
+
+    public boolean less(final @NotNull ConfigNumeric other) {
+        if (isIntegral() && other.isIntegral()) {
+            return longValue() < other.longValue();
+        }
+
+        return doubleValue() < other.doubleValue();
+    }
+
+    public boolean lessEquals(final @NotNull ConfigNumeric other) {
+        if (isIntegral() && other.isIntegral()) {
+            return longValue() <= other.longValue();
+        }
+
+        return doubleValue() <= other.doubleValue();
+    }
+
+    /**
+     * Returns the double numeric, the small integral values are cached
+     *
+     * @param numeric the value
+     * @return the numeric
+     */
     public static @NotNull ConfigNumeric of(final double numeric) {
+        final int index = (int) numeric;
+        if (index == numeric && index >= CACHE_LOW && index < CACHE_HIGH && (index != 0 || 1 / numeric > 0)) {
+            return CACHE[index - CACHE_LOW];
+        }
+
         return new ConfigNumeric(numeric);
     }
 
+    public static @NotNull ConfigInteger of(final long numeric) {
+        return ConfigInteger.of(numeric);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof ConfigNumeric)) return false;
         ConfigNumeric that = (ConfigNumeric) o;
-        return Double.compare(that.numeric, numeric) == 0;
+        if (isIntegral() && that.isIntegral()) {
+            return longValue() == that.longValue();
+        }
+        return Double.compare(that.doubleValue(), doubleValue()) == 0;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(numeric);
+        return Double.hashCode(doubleValue());
     }
 
     @Override
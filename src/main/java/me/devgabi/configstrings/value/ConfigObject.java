@@ -2,25 +2,68 @@ package me.devgabi.configstrings.value;
 
 import me.devgabi.configstrings.reflection.ReflectionUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * A object with members, either from a map or wrapping a java object. The
+ * members of java objects are only converted when accessed, and memoized,
+ * so nested and cyclic object graphs are never converted eagerly.
+ */
 public final class ConfigObject extends ConfigValue {
     public static final String TYPE_NAME = "object";
 
-    private final @NotNull Map<String,ConfigValue> properties;
+    private final @NotNull Map<String, ConfigValue> properties;
+
+    private final @Nullable Object source;
+    private final @NotNull Map<String, MethodHandle> accessors;
 
     private ConfigObject(@NotNull Map<String, ConfigValue> properties) {
         this.properties = properties;
+        this.source = null;
+        this.accessors = Collections.emptyMap();
+    }
+
+    private ConfigObject(@NotNull Object source) {
+        this.properties = new ConcurrentHashMap<>();
+        this.source = source;
+        this.accessors = ReflectionUtils.getAccessors(source.getClass());
     }
 
     public ConfigValue getMember(final String member) {
-        return properties.get(member);
+        final ConfigValue value = properties.get(member);
+        if (value != null || source == null) {
+            return value;
+        }
+
+        final MethodHandle accessor = accessors.get(member);
+        if (accessor == null) {
+            return null;
+        }
+
+        final ConfigValue converted = ConfigValue.of(ReflectionUtils.read(accessor, source));
+        final ConfigValue existing = properties.putIfAbsent(member, converted);
+
+        return existing != null ? existing : converted;
     }
 
     @Override
     public @NotNull Object unwrap() {
-        return properties;
+        if (source == null) {
+            return properties;
+        }
+
+        final Map<String, ConfigValue> members = new HashMap<>();
+        for (final String member : accessors.keySet()) {
+            members.put(member, getMember(member));
+        }
+
+        return Collections.unmodifiableMap(members);
     }
 
     @Override
@@ -37,7 +80,13 @@ public final class ConfigObject extends ConfigValue {
         return new ConfigObject(properties);
     }
 
+    /**
+     * Wraps a java object, its members are converted on the first access
+     *
+     * @param object the java object
+     * @return the object value
+     */
     public static @NotNull ConfigObject of(final Object object) {
-        return new ConfigObject(ReflectionUtils.transformObjectToPropertyMap(object));
+        return new ConfigObject(object);
     }
 }
@@ -28,4 +28,17 @@ public final class ConfigString extends ConfigValue {
     public static @NotNull ConfigString of(final @NotNull String string) {
         return new ConfigString(string);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConfigString that = (ConfigString) o;
+        return string.equals(that.string);
+    }
+
+    @Override
+    public int hashCode() {
+        return string.hashCode();
+    }
 }
@@ -28,9 +28,25 @@ public abstract class ConfigValue {
 
     public abstract @NotNull String getTypeName();
 
+    /**
+     * Returns if the values are equal and of the same type, so they render the same,
+     * unlike {@link #equals(Object)} that holds between the integer 1 and the double 1.0
+     *
+     * @param lhs a value, or null
+     * @param rhs a value, or null
+     * @return if the values are the same
+     */
+    public static boolean same(final @Nullable ConfigValue lhs, final @Nullable ConfigValue rhs) {
+        if (lhs == rhs) return true;
+
+        return lhs != null && rhs != null && lhs.getClass() == rhs.getClass() && lhs.equals(rhs);
+    }
+
     public static @NotNull ConfigValue of(final @Nullable Object object) {
         if (object == null) {
             return ConfigNull.INSTANCE;
+        } else if (object instanceof ConfigValue) {
+            return (ConfigValue) object;
         } else if (object instanceof String) {
             return ConfigString.of((String) object);
         } else if (object instanceof Boolean) {
@@ -38,19 +54,19 @@ public abstract class ConfigValue {
         } else if (object instanceof Double) {
             return ConfigNumeric.of(((Double) object).doubleValue());
         } else if (object instanceof Integer) {
-            return ConfigNumeric.of(((Integer) object).doubleValue());
+            return ConfigInteger.of(((Integer) object).longValue());
         } else if (object instanceof Short) {
-            return ConfigNumeric.of(((Short) object).doubleValue());
+            return ConfigInteger.of(((Short) object).longValue());
         } else if (object instanceof Byte) {
-            return ConfigNumeric.of(((Byte) object).doubleValue());
+            return ConfigInteger.of(((Byte) object).longValue());
         } else if (object instanceof Long) {
-            return ConfigNumeric.of(((Long) object).doubleValue());
+            return ConfigInteger.of(((Long) object).longValue());
         } else if (object instanceof Float) {
             return ConfigNumeric.of(((Float) object).doubleValue());
         } else if (object instanceof AtomicInteger) {
-            return ConfigNumeric.of(((AtomicInteger) object).doubleValue());
+            return ConfigInteger.of(((AtomicInteger) object).longValue());
         } else if (object instanceof AtomicLong) {
-            return ConfigNumeric.of(((AtomicLong) object).doubleValue());
+            return ConfigInteger.of(((AtomicLong) object).longValue());
         } else {
             return ConfigObject.of(object);
         }
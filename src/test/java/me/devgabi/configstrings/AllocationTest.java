@@ -0,0 +1,104 @@
+package me.devgabi.configstrings;
+
+import me.devgabi.configstrings.compiler.Bindings;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.evaluator.Evaluator;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigBool;
+import me.devgabi.configstrings.value.ConfigNumeric;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AllocationTest {
+    private static final String[] COMPARISONS = {
+        "count >= 1",
+        "count < 3 && flag",
+        "ratio <= 1.5 || flag",
+        "count * 2 > count + 3",
+        "count == 5",
+        "missing ?: false",
+    };
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 100_000;
+    private static final int ROUNDS = 5;
+
+    private com.sun.management.ThreadMXBean threads;
+    private Map<String, ConfigValue> environment;
+
+    @BeforeEach
+    void setUp() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "per-thread allocation counters are unavailable");
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "per-thread allocation counters are unsupported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        environment = new HashMap<>();
+        environment.put("count", ConfigValue.of(5));
+        environment.put("flag", ConfigValue.of(true));
+        environment.put("ratio", ConfigValue.of(0.5));
+    }
+
+    @Test
+    void reusesCanonicalInstances() {
+        assertSame(ConfigBool.TRUE, ConfigBool.of(true));
+        assertSame(ConfigBool.FALSE, ConfigBool.of(false));
+        assertSame(ConfigNumeric.of(42.0), ConfigNumeric.of(42.0));
+        assertSame(ConfigNumeric.of(-128.0), ConfigNumeric.of(-128.0));
+        assertSame(ConfigNumeric.of(1023.0), ConfigNumeric.of(1023.0));
+    }
+
+    @Test
+    void interpretsPreparedComparisonsWithoutAllocating() {
+        final Evaluator evaluator = new Evaluator(environment);
+        for (final String code : COMPARISONS) {
+            final Expr expr = ConfigStrings.prepare(ConfigStrings.parse(code));
+            assertTrue(evaluator.visit(expr) instanceof ConfigBool, code);
+
+            assertNoAllocation(code, () -> evaluator.visit(expr));
+        }
+    }
+
+    @Test
+    void evaluatesCompiledComparisonsWithoutAllocating() {
+        for (final String code : COMPARISONS) {
+            final CompiledTemplate template = ConfigStrings.compile(code);
+            final Bindings bindings = template.getLayout().bind(environment);
+            assertTrue(template.evaluateValue(bindings) instanceof ConfigBool, code);
+
+            assertNoAllocation(code, () -> template.evaluateValue(bindings));
+        }
+    }
+
+    private void assertNoAllocation(final String code, final Runnable evaluation) {
+        // warms up past the promotion threshold and the JIT, so escape analysis applies
+        for (int i = 0; i < WARMUP; i++) {
+            evaluation.run();
+        }
+
+        // the least of some rounds, since the counter may see an unrelated allocation
+        long allocated = Long.MAX_VALUE;
+        final long thread = Thread.currentThread().getId();
+        for (int round = 0; round < ROUNDS; round++) {
+            final long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < ITERATIONS; i++) {
+                evaluation.run();
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(thread) - before);
+        }
+
+        // less than a byte per evaluation, the smallest object is 16 bytes
+        assertEquals(0, allocated / ITERATIONS, code + " allocated " + allocated + " bytes in " + ITERATIONS + " evaluations");
+    }
+}
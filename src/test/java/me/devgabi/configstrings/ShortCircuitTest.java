@@ -0,0 +1,90 @@
+package me.devgabi.configstrings;
+
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.compiler.TemplateCompiler;
+import me.devgabi.configstrings.evaluator.Evaluator;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigBool;
+import me.devgabi.configstrings.value.ConfigFunction;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShortCircuitTest {
+    // the variables keep the optimizer from folding the operators away
+    private static final String[] SHORT_CIRCUITS = {"no && f(x)", "yes || f(x)"};
+    private static final String[] EVALUATED = {"yes && f(x)", "no || f(x)"};
+
+    private AtomicInteger calls;
+    private Map<String, ConfigValue> environment;
+
+    @BeforeEach
+    void setUp() {
+        calls = new AtomicInteger();
+        environment = new HashMap<>();
+        environment.put("f", ConfigFunction.of(argument -> {
+            calls.incrementAndGet();
+            return ConfigValue.of(true);
+        }));
+        environment.put("x", ConfigValue.of(1));
+        environment.put("yes", ConfigValue.of(true));
+        environment.put("no", ConfigValue.of(false));
+    }
+
+    @Test
+    void interpreterSkipsTheRightOperand() {
+        final Evaluator evaluator = new Evaluator(environment);
+        assertSame(ConfigBool.FALSE, evaluator.visit(ConfigStrings.parse("false && f(x)")));
+        assertSame(ConfigBool.TRUE, evaluator.visit(ConfigStrings.parse("true || f(x)")));
+        for (final String code : SHORT_CIRCUITS) {
+            evaluator.visit(ConfigStrings.parse(code));
+        }
+        assertEquals(0, calls.get());
+
+        for (final String code : EVALUATED) {
+            evaluator.visit(ConfigStrings.parse(code));
+        }
+        assertEquals(EVALUATED.length, calls.get());
+    }
+
+    @Test
+    void closureTierSkipsTheRightOperand() {
+        assertShortCircuits(new TemplateCompiler(-1), false);
+    }
+
+    @Test
+    void handleTierSkipsTheRightOperand() {
+        assertShortCircuits(new TemplateCompiler(0), true);
+    }
+
+    @Test
+    void linkedHandleTierSkipsTheRightOperand() {
+        final Map<String, ConfigValue> registry = new HashMap<>();
+        registry.put("f", environment.get("f"));
+        assertShortCircuits(new TemplateCompiler(0, registry), true);
+    }
+
+    private void assertShortCircuits(final TemplateCompiler compiler, final boolean promoted) {
+        for (final String code : SHORT_CIRCUITS) {
+            final CompiledTemplate template = compiler.compile(ConfigStrings.parse(code));
+            template.evaluateValue(environment);
+            assertEquals(promoted, template.isPromoted(), code);
+            assertSame(ConfigBool.of(code.startsWith("yes")), template.evaluateValue(environment), code);
+        }
+        assertEquals(0, calls.get());
+
+        for (final String code : EVALUATED) {
+            final CompiledTemplate template = compiler.compile(ConfigStrings.parse(code));
+            assertTrue(template.evaluateValue(environment) instanceof ConfigBool, code);
+        }
+        assertEquals(EVALUATED.length, calls.get());
+    }
+}
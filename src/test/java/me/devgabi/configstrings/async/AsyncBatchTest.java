@@ -0,0 +1,98 @@
+package me.devgabi.configstrings.async;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.compiler.CompiledTemplate;
+import me.devgabi.configstrings.compiler.TemplateCompiler;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.metrics.Instrumentation;
+import me.devgabi.configstrings.value.ConfigFunction;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncBatchTest {
+    private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+    private final List<String> reports = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        Instrumentation.uninstall();
+    }
+
+    @Test
+    void doesNotReportSuspensionsAsFailures() throws Exception {
+        Instrumentation.install(new EvaluationListener() {
+            @Override
+            public void evaluated(
+                    final @NotNull Expr expr,
+                    final int outputLength,
+                    final long nanos,
+                    final @Nullable Throwable error
+            ) {
+                record("evaluated", error);
+            }
+
+            @Override
+            public void called(final @NotNull ConfigFunction function, final long nanos, final @Nullable Throwable error) {
+                record("called", error);
+            }
+        });
+
+        final ConfigFunction lookup = AsyncFunction.of(1, calls -> {
+            final List<ConfigValue> values = new ArrayList<>(calls.size());
+            for (final List<ConfigValue> call : calls) {
+                values.add(ConfigValue.of("user" + call.get(0)));
+            }
+
+            return CompletableFuture.completedFuture(values);
+        });
+
+        final List<Map<String, ConfigValue>> environments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final Map<String, ConfigValue> environment = new HashMap<>();
+            environment.put("id", ConfigValue.of(i));
+            environment.put("lookup", lookup);
+            environments.add(environment);
+        }
+
+        final Expr expr = ConfigStrings.parse("lookup(id)");
+        final CompiledTemplate closures = new TemplateCompiler(-1).compile(expr);
+        final CompiledTemplate handles = new TemplateCompiler(0).compile(expr);
+
+        final List<Supplier<String>> tasks = new ArrayList<>();
+        for (final Map<String, ConfigValue> environment : environments) {
+            tasks.add(() -> ConfigStrings.evaluate(expr, environment));
+            tasks.add(() -> closures.evaluate(environment));
+            tasks.add(() -> handles.evaluate(environment));
+        }
+
+        final List<String> outputs = AsyncBatch.run(tasks).get();
+        assertEquals(Arrays.asList("user0", "user0", "user0", "user1", "user1", "user1", "user2", "user2", "user2"), outputs);
+
+        assertTrue(errors.isEmpty(), "reported " + errors);
+        // each task and its call is reported once, by the round that finished it
+        assertEquals(2 * tasks.size(), reports.size(), "reported " + reports);
+    }
+
+    private void record(final String step, final @Nullable Throwable error) {
+        reports.add(step);
+        if (error != null) {
+            errors.add(error);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.value.ConfigFunction;
+import me.devgabi.configstrings.value.ConfigNumeric;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchEvaluatorTest {
+    private static final int ENVIRONMENTS = 100_000;
+
+    private final ForkJoinPool executor = new ForkJoinPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void keepsTheOrderOfTheEnvironments() {
+        final List<Map<String, ConfigValue>> environments = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            environments.add(Collections.singletonMap("x", ConfigValue.of(i)));
+        }
+
+        final List<String> outputs = evaluator("x + 1").evaluate(environments);
+        assertEquals(environments.size(), outputs.size());
+        for (int i = 0; i < outputs.size(); i++) {
+            assertEquals(String.valueOf(i + 1), outputs.get(i));
+        }
+    }
+
+    @Test
+    void pullsUnsizedEnvironmentsAsTheyAreEvaluated() {
+        final AtomicInteger pulled = new AtomicInteger();
+        final AtomicInteger evaluated = new AtomicInteger();
+        final AtomicInteger maximumBuffered = new AtomicInteger();
+
+        evaluator("x + 1").evaluate(environments(pulled, null), (environment, output) -> {
+            maximumBuffered.accumulateAndGet(pulled.get() - evaluated.incrementAndGet(), Math::max);
+        });
+
+        assertEquals(ENVIRONMENTS, evaluated.get());
+        // a few chunks per thread, instead of every environment
+        assertTrue(maximumBuffered.get() < ENVIRONMENTS / 10, "buffered " + maximumBuffered.get());
+    }
+
+    @Test
+    void rethrowsTheFirstErrorAndStopsTheOtherChunks() {
+        final AtomicInteger pulled = new AtomicInteger();
+        final ConfigFunction fail = ConfigFunction.of(argument -> {
+            if (argument.cast(ConfigNumeric.class).longValue() == 0) {
+                throw new AssertionError("failed");
+            }
+
+            return argument;
+        });
+
+        final AssertionError error = assertThrows(AssertionError.class, () -> {
+            evaluator("f(x)").evaluate(environments(pulled, fail), (environment, output) -> {});
+        });
+        assertEquals("failed", error.getMessage());
+        assertTrue(pulled.get() < ENVIRONMENTS, "pulled " + pulled.get());
+    }
+
+    private BatchEvaluator evaluator(final String code) {
+        return new BatchEvaluator(ConfigStrings.compile(code), executor);
+    }
+
+    // the environments of a iterator, created as they are pulled
+    private static Spliterator<Map<String, ConfigValue>> environments(
+            final AtomicInteger pulled,
+            final ConfigFunction function
+    ) {
+        final Iterator<Map<String, ConfigValue>> iterator = new Iterator<Map<String, ConfigValue>>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.get() < ENVIRONMENTS;
+            }
+
+            @Override
+            public Map<String, ConfigValue> next() {
+                final Map<String, ConfigValue> environment = new HashMap<>();
+                environment.put("x", ConfigValue.of(pulled.getAndIncrement()));
+                if (function != null) {
+                    environment.put("f", function);
+                }
+
+                return environment;
+            }
+        };
+
+        return Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED);
+    }
+}
@@ -0,0 +1,96 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.metrics.EvaluationListener;
+import me.devgabi.configstrings.metrics.Instrumentation;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledTemplateTest {
+    @AfterEach
+    void tearDown() {
+        Instrumentation.uninstall();
+    }
+
+    @Test
+    void evaluateToCountsTowardsThePromotion() {
+        final Map<String, ConfigValue> environment = new HashMap<>();
+        environment.put("n", ConfigValue.of(2));
+
+        final CompiledTemplate template = new TemplateCompiler(2).compile(ConfigStrings.parse("n * 3 + 1"));
+        final String expected = template.evaluateValue(environment).toString();
+        for (int i = 0; i < 3; i++) {
+            final StringBuilder output = new StringBuilder();
+            template.evaluateTo(environment, output);
+            assertEquals(expected, output.toString());
+        }
+        assertTrue(template.isPromoted());
+
+        final StringBuilder output = new StringBuilder();
+        template.evaluateTo(environment, output);
+        assertEquals(expected, output.toString());
+    }
+
+    @Test
+    void evaluateToDoesNotPromoteBelowTheThreshold() {
+        final Map<String, ConfigValue> environment = new HashMap<>();
+        environment.put("n", ConfigValue.of(2));
+
+        final CompiledTemplate template = new TemplateCompiler(10).compile(ConfigStrings.parse("n * 3 + 1"));
+        for (int i = 0; i < 10; i++) {
+            template.evaluateTo(environment, new StringBuilder());
+        }
+        assertFalse(template.isPromoted());
+    }
+
+    @Test
+    void reportsThePromotion() {
+        final List<CompiledTemplate> promoted = new ArrayList<>();
+        final List<Throwable> errors = new ArrayList<>();
+        Instrumentation.install(new EvaluationListener() {
+            @Override
+            public void promoted(final CompiledTemplate template, final long nanos, final Throwable error) {
+                promoted.add(template);
+                errors.add(error);
+            }
+        });
+
+        final Map<String, ConfigValue> environment = new HashMap<>();
+        environment.put("n", ConfigValue.of(2));
+
+        final CompiledTemplate template = new TemplateCompiler(0).compile(ConfigStrings.parse("n * 3 + 1"));
+        assertEquals("7", template.evaluate(environment));
+        assertTrue(template.isPromoted());
+        assertEquals(1, promoted.size());
+        assertSame(template, promoted.get(0));
+        assertNull(errors.get(0));
+    }
+
+    @Test
+    void doesNotPromoteDeepTemplates() {
+        final Map<String, ConfigValue> environment = new HashMap<>();
+        final StringBuilder code = new StringBuilder("0");
+        for (int i = 0; i < 100; i++) {
+            environment.put("v" + i, ConfigValue.of(i));
+            code.append(" + v").append(i);
+        }
+
+        final CompiledTemplate template = new TemplateCompiler(0).compile(ConfigStrings.parse(code.toString()));
+        for (int i = 0; i < 3; i++) {
+            assertEquals("4950", template.evaluate(environment));
+        }
+        assertFalse(template.isPromoted());
+    }
+}
@@ -0,0 +1,83 @@
+package me.devgabi.configstrings.compiler;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateBundleTest {
+    @Test
+    void evaluatesTheOtherKeysWhenOneFails() {
+        final TemplateBundle bundle = bundle();
+        final Map<String, ConfigValue> environment = new HashMap<>(ConfigStrings.builtin());
+        environment.put("x", ConfigValue.of(2));
+        environment.put("y", ConfigValue.of(3));
+
+        final BundleException exception = assertThrows(BundleException.class, () -> bundle.evaluate(environment));
+        assertEquals(Collections.singleton("upper"), exception.getErrors().keySet());
+
+        assertEquals(Arrays.asList("double", "sum"), Arrays.asList(bundle.getOutputs().keySet().toArray()));
+        assertEquals("4", bundle.get("double"));
+        assertNull(bundle.get("upper"));
+        assertEquals("5", bundle.get("sum"));
+        assertEquals(exception.getErrors(), bundle.getErrors());
+    }
+
+    @Test
+    void keepsTheBundleConsistentWhenAUpdateFails() {
+        final TemplateBundle bundle = bundle();
+        final Map<String, ConfigValue> environment = new HashMap<>(ConfigStrings.builtin());
+        environment.put("x", ConfigValue.of("a"));
+        environment.put("y", ConfigValue.of("b"));
+        bundle.evaluate(environment);
+
+        final BundleException exception = assertThrows(BundleException.class, () -> {
+            bundle.update("x", ConfigValue.of(2));
+        });
+        assertEquals(Arrays.asList("upper", "sum"), Arrays.asList(exception.getErrors().keySet().toArray()));
+        assertEquals("4", bundle.get("double"));
+        assertNull(bundle.get("upper"));
+        assertNull(bundle.get("sum"));
+
+        // the variable was changed for every key, so the failed keys recover with the next updates
+        assertEquals(Collections.singleton("sum"), bundle.update("y", ConfigValue.of(3)));
+        assertEquals("5", bundle.get("sum"));
+        assertEquals(Collections.singleton("upper"), bundle.getErrors().keySet());
+
+        bundle.update("x", ConfigValue.of("d"));
+        assertEquals("D", bundle.get("upper"));
+        assertEquals("dd", bundle.get("double"));
+        assertTrue(bundle.getErrors().isEmpty());
+        assertEquals(Arrays.asList("double", "upper", "sum"), Arrays.asList(bundle.getOutputs().keySet().toArray()));
+    }
+
+    @Test
+    void updatesWhenAEqualValueRendersDifferently() {
+        final TemplateBundle bundle = ConfigStrings.bundle(Collections.singletonMap("x", "x"));
+        bundle.evaluate(Collections.singletonMap("x", ConfigValue.of(1.0)));
+        assertEquals("1.0", bundle.get("x"));
+
+        assertEquals(Collections.singleton("x"), bundle.update("x", ConfigValue.of(1)));
+        assertEquals("1", bundle.get("x"));
+        assertTrue(bundle.update("x", ConfigValue.of(1)).isEmpty());
+    }
+
+    private static TemplateBundle bundle() {
+        final Map<String, String> templates = new LinkedHashMap<>();
+        templates.put("double", "x + x");
+        templates.put("upper", "upper(x)");
+        templates.put("sum", "x + y");
+
+        return ConfigStrings.bundle(templates);
+    }
+}
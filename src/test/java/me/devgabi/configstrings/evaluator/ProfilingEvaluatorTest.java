@@ -0,0 +1,74 @@
+package me.devgabi.configstrings.evaluator;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilingEvaluatorTest {
+    private Map<String, ConfigValue> environment;
+
+    @BeforeEach
+    void setUp() {
+        environment = new HashMap<>(ConfigStrings.builtin());
+        environment.put("name", ConfigValue.of("Gabi"));
+        environment.put("count", ConfigValue.of(3));
+        environment.put("flag", ConfigValue.of(false));
+    }
+
+    @Test
+    void recordsEveryVisitedNode() {
+        final ProfilingEvaluator profiler = new ProfilingEvaluator(environment);
+        final Expr.Binary expr = (Expr.Binary) ConfigStrings.parse("count * 2 + count");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(new Evaluator(environment).visit(expr), profiler.visit(expr));
+        }
+
+        final NodeProfile root = profiler.getProfile(expr);
+        final NodeProfile lhs = profiler.getProfile(expr.getLhs());
+        assertNotNull(root);
+        assertNotNull(lhs);
+        assertEquals(10, root.getVisits());
+        assertEquals(10, lhs.getVisits());
+        assertTrue(root.getTotalNanos() >= lhs.getTotalNanos());
+        assertEquals(root.getTotalNanos(), root.getSelfNanos() + lhs.getTotalNanos() + profiler.getProfile(expr.getRhs()).getTotalNanos());
+    }
+
+    @Test
+    void skipsTheShortCircuitedNodes() {
+        final ProfilingEvaluator profiler = new ProfilingEvaluator(environment);
+        final Expr.Logical expr = (Expr.Logical) ConfigStrings.parse("flag && upper(name) == name");
+        profiler.visit(expr);
+
+        assertNotNull(profiler.getProfile(expr.getLhs()));
+        assertNull(profiler.getProfile(expr.getRhs()));
+        assertTrue(profiler.dump(expr).contains("not visited"));
+    }
+
+    @Test
+    void recordsTheTextsEvaluatedIntoAOutput() {
+        final ProfilingEvaluator profiler = new ProfilingEvaluator(environment);
+        final Expr.Text expr = (Expr.Text) ConfigStrings.parse("'x{{name}}y{{count}}z'", true);
+
+        final StringBuilder expected = new StringBuilder();
+        new Evaluator(environment).evaluateTo(expr, expected);
+        final StringBuilder output = new StringBuilder();
+        profiler.evaluateTo(expr, output);
+
+        assertEquals(expected.toString(), output.toString());
+        assertNotNull(profiler.getProfile(expr));
+        assertEquals(1, profiler.getProfile(expr).getVisits());
+        for (final Expr element : expr.getInterpolation()) {
+            assertNotNull(profiler.getProfile(element));
+        }
+    }
+}
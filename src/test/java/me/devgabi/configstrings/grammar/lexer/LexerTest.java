@@ -0,0 +1,49 @@
+package me.devgabi.configstrings.grammar.lexer;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.grammar.Token;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LexerTest {
+    @Test
+    void keepsTheWholeLastSegmentOfAString() {
+        assertEquals(Arrays.asList("The quick fox"), literals("'The quick fox'"));
+        assertEquals(Arrays.asList("a ", "name", " b"), literals("'a {{name}} b'"));
+    }
+
+    @Test
+    void lexesTheTokensInsideAInterpolationFromTheirOwnStart() {
+        assertEquals(Arrays.asList("", "name", "!"), literals("'{{ name }}!'"));
+        assertEquals(Arrays.asList("", "upper", "name", ""), literals("'{{ upper(name) }}'"));
+    }
+
+    @Test
+    void rendersNestedInterpolations() {
+        final Map<String, ConfigValue> environment = new HashMap<>(ConfigStrings.builtin());
+        environment.put("name", ConfigValue.of("Gabi"));
+        environment.put("count", ConfigValue.of(42));
+
+        final String code = "'a {{ upper('b {{name}} c {{lower('D {{ count }} E')}} f') }} g'";
+        assertEquals("a B GABI C D 42 E F g", ConfigStrings.compile(code).evaluate(environment));
+    }
+
+    private static List<Object> literals(final String code) {
+        final List<Object> literals = new ArrayList<>();
+        for (final Token token : new Lexer(code, true).lex()) {
+            if (token.getLiteral() != null) {
+                literals.add(token.getLiteral());
+            }
+        }
+
+        return literals;
+    }
+}
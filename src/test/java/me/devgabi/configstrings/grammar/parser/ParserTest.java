@@ -0,0 +1,57 @@
+package me.devgabi.configstrings.grammar.parser;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.grammar.lexer.Lexer;
+import me.devgabi.configstrings.optimizer.Optimizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParserTest {
+    @Test
+    void parsesExpressionsUpToTheMaximumDepth() {
+        // a chain of n terms is a left-deep tree of n levels
+        final Expr expr = parse(chain(Parser.MAXIMUM_DEPTH));
+
+        assertEquals(Parser.MAXIMUM_DEPTH, Optimizer.depth(expr));
+        assertEquals(Integer.toString(Parser.MAXIMUM_DEPTH), ConfigStrings.evaluate(expr, Collections.emptyMap()));
+    }
+
+    @Test
+    void rejectsLongChains() {
+        assertThrows(ParseException.class, () -> parse(chain(Parser.MAXIMUM_DEPTH + 1)));
+        assertThrows(ParseException.class, () -> parse(chain(100_000)));
+    }
+
+    @Test
+    void rejectsDeeplyNestedGroupsBeforeOverflowingTheStack() {
+        final StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            code.append('(');
+        }
+
+        code.append('1');
+        for (int i = 0; i < 100_000; i++) {
+            code.append(')');
+        }
+
+        assertThrows(ParseException.class, () -> parse(code.toString()));
+    }
+
+    private static Expr parse(final String code) {
+        return new Parser(new Lexer(code, true)).parse();
+    }
+
+    private static String chain(final int length) {
+        final StringBuilder builder = new StringBuilder("1");
+        for (int i = 1; i < length; i++) {
+            builder.append(" + 1");
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package me.devgabi.configstrings.metrics;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.grammar.Expr;
+import me.devgabi.configstrings.value.ConfigFunction;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryMetricsTest {
+    @AfterEach
+    void tearDown() {
+        Instrumentation.uninstall();
+    }
+
+    @Test
+    void keysTemplatesByTheirCode() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        Instrumentation.install(metrics);
+
+        final Map<String, ConfigValue> environment = new HashMap<>();
+        environment.put("n", ConfigValue.of(1));
+        for (int i = 0; i < 3; i++) {
+            // parsed again into another expression
+            ConfigStrings.parseCache().clear();
+            ConfigStrings.evaluate(ConfigStrings.parse("n + 1"), environment);
+        }
+
+        final LatencyHistogram latency = metrics.getTemplateLatencies().get("n + 1");
+        assertNotNull(latency);
+        assertEquals(3, latency.getCount());
+        assertEquals(1, metrics.getTemplateLatencies().size());
+    }
+
+    @Test
+    void recordsTemplatesOfUnknownCodeUnderOther() {
+        ConfigStrings.parseCache().clear();
+        final Expr expr = ConfigStrings.parse("n * 2");
+
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        Instrumentation.install(metrics);
+        ConfigStrings.evaluate(expr, Collections.singletonMap("n", ConfigValue.of(1)));
+
+        assertEquals(InMemoryMetrics.OTHER, metrics.getCode(expr));
+        assertEquals(Collections.singleton(InMemoryMetrics.OTHER), metrics.getTemplateLatencies().keySet());
+    }
+
+    @Test
+    void boundsTheTemplatesAndFunctions() {
+        final InMemoryMetrics metrics = new InMemoryMetrics(4);
+        Instrumentation.install(metrics);
+
+        final Map<String, ConfigValue> environment = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            environment.put("f" + i, ConfigFunction.of(() -> ConfigValue.of(1)).named("f" + i));
+            ConfigStrings.evaluate(ConfigStrings.parse("f" + i + "()"), environment);
+        }
+
+        assertTrue(metrics.getTemplateLatencies().size() <= 5);
+        assertEquals(6, metrics.getTemplateLatencies().get(InMemoryMetrics.OTHER).getCount());
+        assertTrue(metrics.getFunctionLatencies().size() <= 5);
+        assertEquals(6, metrics.getFunctionLatencies().get(InMemoryMetrics.OTHER).getCount());
+    }
+}
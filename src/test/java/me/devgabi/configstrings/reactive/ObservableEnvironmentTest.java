@@ -0,0 +1,100 @@
+package me.devgabi.configstrings.reactive;
+
+import me.devgabi.configstrings.ConfigStrings;
+import me.devgabi.configstrings.value.ConfigFunction;
+import me.devgabi.configstrings.value.ConfigValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ObservableEnvironmentTest {
+    @Test
+    void pushesTheOtherSubscriptionsWhenOneFails() {
+        final ObservableEnvironment environment = new ObservableEnvironment(ConfigStrings.builtin());
+        environment.put("x", ConfigValue.of("a"));
+
+        final List<String> outputs = new ArrayList<>();
+        final Subscription failing = environment.subscribe(ConfigStrings.compile("upper(x)"), outputs::add);
+        environment.subscribe(ConfigStrings.compile("x + 1"), outputs::add);
+        assertEquals(Arrays.asList("A", "a1"), outputs);
+
+        environment.put("x", ConfigValue.of(2));
+        assertThrows(RuntimeException.class, environment::tick);
+        assertEquals(Arrays.asList("A", "a1", "3"), outputs);
+        assertEquals("A", failing.getOutput());
+
+        environment.put("x", ConfigValue.of("b"));
+        assertEquals(1, environment.tick());
+        assertEquals(Arrays.asList("A", "a1", "3", "B", "b1"), outputs);
+    }
+
+    @Test
+    void reportsTheErrorsToTheHandler() {
+        final ObservableEnvironment environment = new ObservableEnvironment(ConfigStrings.builtin());
+        environment.put("x", ConfigValue.of("a"));
+
+        final List<RuntimeException> errors = new ArrayList<>();
+        environment.subscribe(ConfigStrings.compile("upper(x)"), output -> {}, errors::add);
+
+        environment.put("x", ConfigValue.of(2));
+        assertEquals(1, environment.tick());
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    void keepsTheOutputOnlyAfterItWasPushed() {
+        final ObservableEnvironment environment = new ObservableEnvironment();
+        environment.put("x", ConfigValue.of(1));
+
+        final List<String> outputs = new ArrayList<>();
+        final Subscription subscription = environment.subscribe(ConfigStrings.compile("x + 0"), output -> {
+            if (output.equals("2")) {
+                throw new IllegalStateException("consumer failed");
+            }
+            outputs.add(output);
+        }, error -> {});
+
+        environment.put("x", ConfigValue.of(2));
+        environment.tick();
+        assertEquals("1", subscription.getOutput());
+
+        environment.put("x", ConfigValue.of(3));
+        environment.tick();
+        assertEquals("3", subscription.getOutput());
+        assertEquals(Arrays.asList("1", "3"), outputs);
+    }
+
+    @Test
+    void evaluatesOutsideTheLock() {
+        final ObservableEnvironment environment = new ObservableEnvironment();
+        environment.put("x", ConfigValue.of(1));
+
+        // changes the environment from another thread while the template is evaluated
+        environment.put("probe", ConfigFunction.of(value -> {
+            try {
+                CompletableFuture.runAsync(() -> environment.put("y", ConfigValue.of(1))).get(5, TimeUnit.SECONDS);
+                return value;
+            } catch (final TimeoutException e) {
+                return ConfigValue.of("locked");
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+
+        final List<String> outputs = Collections.synchronizedList(new ArrayList<>());
+        environment.subscribe(ConfigStrings.compile("probe(x)"), outputs::add);
+        environment.put("x", ConfigValue.of(2));
+        environment.tick();
+
+        assertEquals(Arrays.asList("1", "2"), outputs);
+    }
+}
@@ -0,0 +1,46 @@
+package me.devgabi.configstrings.value;
+
+import me.devgabi.configstrings.ConfigStrings;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConfigIntegerTest {
+    // the first integer a double cannot represent
+    private static final long INEXACT = (1L << 53) + 1;
+
+    @Test
+    void unwrapsExactly() {
+        assertEquals(Long.valueOf(INEXACT), ConfigInteger.of(INEXACT).numberValue());
+        assertEquals(Long.valueOf(Long.MAX_VALUE), ConfigInteger.of(Long.MAX_VALUE).numberValue());
+        assertEquals(Double.valueOf(1.5), ConfigNumeric.of(1.5).numberValue());
+    }
+
+    @Test
+    void unwrapsIntegersAsDoubles() {
+        final double unwrapped = ConfigValue.of(3).cast(ConfigNumeric.class).unwrap();
+
+        assertEquals(3.0, unwrapped);
+        assertEquals(Double.valueOf(1.5), ConfigNumeric.of(1.5).unwrap());
+    }
+
+    @Test
+    void roundTripsThroughNumberValue() {
+        final ConfigValue value = ConfigValue.of(ConfigInteger.of(INEXACT).numberValue());
+
+        assertEquals(ConfigInteger.of(INEXACT), value);
+        assertEquals(String.valueOf(INEXACT), value.toString());
+    }
+
+    @Test
+    void foldsExactly() {
+        final String code = (INEXACT - 1) + " + 1";
+
+        assertEquals(
+                String.valueOf(INEXACT),
+                ConfigStrings.evaluate(ConfigStrings.optimize(ConfigStrings.parse(code)), Collections.emptyMap())
+        );
+    }
+}